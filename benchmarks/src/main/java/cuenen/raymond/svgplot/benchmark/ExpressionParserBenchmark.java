@@ -0,0 +1,70 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.benchmark;
+
+import cuenen.raymond.svgplot.server.PlotRenderer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for the parse throughput of {@code ExpressionParser.js}. The
+ * expressions are those of {@code ExpressionParserTest} and
+ * {@code PathValidator}.
+ *
+ * @author R. M. Cuenen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExpressionParserBenchmark {
+
+    @Param({"0.5*#x^2-1", "atan(#x)", "sin(#x)", "#x/#x^2", "#x&&(#x-1)",
+        "veclen(3,4)+25", "cos(pi r)", "max(1,2.5,50,-3)", "-1/2*1/2"})
+    public String expression;
+    private PlotRenderer renderer;
+    private Object parser;
+
+    @Setup
+    public void setUp() throws Exception {
+        renderer = ModuleHost.create();
+        parser = renderer.require("ExpressionParser");
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        return renderer.invokeMethod(parser, "parse", expression);
+    }
+}
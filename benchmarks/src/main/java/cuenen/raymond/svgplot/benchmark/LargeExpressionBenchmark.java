@@ -0,0 +1,84 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.benchmark;
+
+import cuenen.raymond.svgplot.server.PlotRenderer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark for the parse throughput of {@code ExpressionParser.js} on
+ * machine-generated expressions of about 100k characters: a Fourier series
+ * with thousands of terms and a deeply nested expression.
+ *
+ * @author R. M. Cuenen
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LargeExpressionBenchmark {
+
+    private static final int LENGTH = 100000;
+    @Param({"fourier", "nested"})
+    public String shape;
+    private PlotRenderer renderer;
+    private Object parser;
+    private String expression;
+
+    @Setup
+    public void setUp() throws Exception {
+        renderer = ModuleHost.create();
+        parser = renderer.require("ExpressionParser");
+        StringBuilder sb = new StringBuilder("0.5");
+        if ("fourier".equals(shape)) {
+            for (int k = 1; sb.length() < LENGTH; k++) {
+                sb.append(k % 2 == 0 ? '-' : '+').append(String.format(Locale.ROOT, "%.6f", 1.0 / k));
+                sb.append("*sin(").append(k).append("*#x r)");
+            }
+        } else {
+            while (sb.length() < LENGTH) {
+                sb.insert(0, "(1+").append("*#x)");
+            }
+        }
+        expression = sb.toString();
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        return renderer.invokeMethod(parser, "parse", expression);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.benchmark;
+
+import cuenen.raymond.svgplot.server.PlotRenderer;
+import java.io.IOException;
+import javax.script.ScriptException;
+
+/**
+ * This class hosts the SVG Plot modules for the benchmarks in a
+ * {@link PlotRenderer}, the same engine and {@code PlotShim.js} environment
+ * the server renders with. The modules are loaded from the class path
+ * ({@code /modules/<id>.js}), which also holds the {@code Harness} module
+ * with the drivers running the benchmarked work inside the engine.
+ *
+ * @author R. M. Cuenen
+ */
+public final class ModuleHost {
+
+    private static final String MODULE_PATH = "/modules/%s.js";
+
+    /**
+     * Creates a new renderer in a new script engine.
+     *
+     * @return The renderer.
+     * @throws IOException When a module cannot be read.
+     * @throws ScriptException When a module cannot be evaluated.
+     */
+    public static PlotRenderer create() throws IOException, ScriptException {
+        return new PlotRenderer(PlotRenderer.DEFAULT_ENGINE,
+                id -> ModuleHost.class.getResourceAsStream(String.format(MODULE_PATH, id)));
+    }
+
+    private ModuleHost() {
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+
+SVGModule.define(
+        "Harness",
+        [],
+        function () {
+            /**
+             * Drivers executing the benchmarked work inside the engine, so
+             * the Java-to-JavaScript call overhead is paid once per invocation.
+             * 
+             * @namespace Harness
+             */
+            return {
+                /**
+                 * Evaluates the parse tree for 'count' samples of '#x' over [-5, 5].
+                 * 
+                 * @param {Visitor} tree The parse tree.
+                 * @param {Integer} count The number of samples.
+                 * @returns {Number} The sum of the values.
+                 */
+                evaluate: function (tree, count) {
+                    var step = 10 / count;
+                    var vars = {x: -5};
+                    var sum = 0;
+                    for (var i = 0; i < count; i++) {
+                        sum += Number(tree.visit(vars));
+                        vars.x += step;
+                    }
+                    return sum;
+                }
+            };
+        });
@@ -0,0 +1,192 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.renderer;
+
+import cuenen.raymond.svgplot.server.PlotExpander;
+import cuenen.raymond.svgplot.server.PlotRenderer;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line renderer that expands the plot elements of SVG files into path
+ * elements, so the files can be shown without client scripts. The files are
+ * rendered in parallel; each worker thread has its own script engine running
+ * the modules. Usage:
+ * <pre>
+ * java -jar svgplot-renderer.jar [-t threads] [-e engine] -o output input...
+ * </pre>
+ * Each input is an SVG file or a directory that is searched for SVG files.
+ * The rendered files are written to the output directory, keeping their path
+ * relative to the input.
+ *
+ * @author R. M. Cuenen
+ */
+public final class BatchRenderer {
+
+    private static final String USAGE = "Usage: BatchRenderer [-t threads] [-e engine] -o output input...";
+    private static final String MODULE_PATH = "/modules/%s.js";
+    private final PlotExpander expander = new PlotExpander();
+    private final ThreadLocal<PlotRenderer> renderers;
+    private final Path output;
+    private final AtomicInteger plots = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Creates a new batch renderer.
+     *
+     * @param engineName The script engine name.
+     * @param output The output directory.
+     */
+    public BatchRenderer(final String engineName, Path output) {
+        this.output = output;
+        renderers = ThreadLocal.withInitial(() -> {
+            try {
+                return new PlotRenderer(engineName, id -> BatchRenderer.class.getResourceAsStream(String.format(MODULE_PATH, id)));
+            } catch (Exception ex) {
+                throw new IllegalStateException("Cannot create renderer: " + ex.getMessage(), ex);
+            }
+        });
+    }
+
+    /**
+     * Renders a single file.
+     *
+     * @param base The input (directory) the file was found in.
+     * @param file The SVG file.
+     * @return The report line of the file.
+     * @throws Exception When the file cannot be rendered.
+     */
+    public String render(Path base, Path file) throws Exception {
+        Path relative = Files.isDirectory(base) ? base.relativize(file) : file.getFileName();
+        Path target = output.resolve(relative.toString());
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), ".render", ".svg");
+        long start = System.nanoTime();
+        int count;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file));
+                OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+            count = expander.expand(in, out, renderers.get());
+        } catch (Exception ex) {
+            Files.deleteIfExists(temporary);
+            throw ex;
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        double millis = (System.nanoTime() - start) / 1e6;
+        long size = Files.size(file);
+        plots.addAndGet(count);
+        bytes.addAndGet(size);
+        return String.format("%s: %d plots, %d bytes in %.1f ms (%.1f plots/s)",
+                file, count, size, millis, count * 1000 / Math.max(millis, 1e-3));
+    }
+
+    /**
+     * Runs the batch renderer.
+     *
+     * @param args The command line arguments.
+     * @throws Exception When the arguments are invalid.
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String engine = PlotRenderer.DEFAULT_ENGINE;
+        Path output = null;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-t":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "-e":
+                    engine = args[++i];
+                    break;
+                case "-o":
+                    output = Paths.get(args[++i]);
+                    break;
+                default:
+                    inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (output == null || inputs.isEmpty()) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        final BatchRenderer renderer = new BatchRenderer(engine, output);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<String>> results = new ArrayList<>();
+        long start = System.nanoTime();
+        for (final Path input : inputs) {
+            for (final Path file : find(input)) {
+                results.add(executor.submit(() -> renderer.render(input, file)));
+            }
+        }
+        int failures = 0;
+        for (Future<String> result : results) {
+            try {
+                System.out.println(result.get());
+            } catch (ExecutionException ex) {
+                failures++;
+                System.err.println("Failed: " + ex.getCause());
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.println(String.format("Rendered %d files (%d failed), %d plots, %d bytes in %.2f s"
+                + " on %d threads: %.1f files/s, %.1f plots/s, %.2f MB/s",
+                results.size() - failures, failures, renderer.plots.get(), renderer.bytes.get(), seconds,
+                threads, (results.size() - failures) / seconds, renderer.plots.get() / seconds,
+                renderer.bytes.get() / seconds / (1024 * 1024)));
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static List<Path> find(Path input) throws IOException {
+        if (!Files.isDirectory(input)) {
+            return List.of(input);
+        }
+        try (Stream<Path> files = Files.walk(input)) {
+            return files.filter(file -> Files.isRegularFile(file) && file.toString().endsWith(".svg"))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * This servlet serves slices of large binary datasets, to be plotted through
+ * the 'src' attribute of plot elements. The datasets are memory-mapped by
+ * {@link MappedDataset}; the most recently used mappings are kept.
+ * <p>
+ * The servlet accepts the following request parameters:
+ * <ul>
+ * <li>{@code name}: The dataset file, relative to the dataset directory.</li>
+ * <li>{@code format}: The element format, {@code float64} (default) or
+ * {@code float32}.</li>
+ * <li>{@code from}, {@code to}: The x range of the slice (the whole dataset).
+ * The points just outside the range are included, so the plot reaches the
+ * edges of the range.</li>
+ * <li>{@code width}: The number of pixel columns to decimate the slice to
+ * (none).</li>
+ * </ul>
+ * The slice is sent in the format of the dataset itself. The Servlet API has no
+ * zero-copy transfer, so the mapped bytes are copied to the response stream
+ * through a buffer; they are not read into the heap as a whole.
+ * <p>
+ * The servlet accepts the following init-parameters:
+ * <ul>
+ * <li>{@code directory}: The dataset directory (/WEB-INF/datasets in the
+ * webapp).</li>
+ * <li>{@code mappings}: The maximum number of mapped datasets (16).</li>
+ * </ul>
+ *
+ * @author R. M. Cuenen
+ */
+public class DatasetServlet extends HttpServlet {
+
+    private static final String CONTENT_TYPE = "application/octet-stream";
+    private static final int MAX_WIDTH = 1 << 16;
+    private File directory;
+    private Map<String, MappedDataset> mappings;
+
+    @Override
+    public void init(ServletConfig config) throws ServletException {
+        super.init(config);
+        String path = config.getInitParameter("directory");
+        if (path == null) {
+            path = config.getServletContext().getRealPath("/WEB-INF/datasets");
+        }
+        try {
+            directory = new File(path).getCanonicalFile();
+        } catch (IOException ex) {
+            throw new ServletException(ex);
+        }
+        String value = config.getInitParameter("mappings");
+        final int size = value == null ? 16 : Integer.parseInt(value);
+        mappings = new LinkedHashMap<String, MappedDataset>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, MappedDataset> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        String name = request.getParameter("name");
+        String format = request.getParameter("format");
+        int elementSize = format == null || format.equals("float64") ? 8 : (format.equals("float32") ? 4 : 0);
+        double from;
+        double to;
+        int width;
+        try {
+            from = getParameter(request, "from", Double.NEGATIVE_INFINITY);
+            to = getParameter(request, "to", Double.POSITIVE_INFINITY);
+            width = (int) getParameter(request, "width", 0);
+        } catch (NumberFormatException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, ex.getMessage());
+            return;
+        }
+        if (name == null || elementSize == 0 || from > to || width < 0 || width > MAX_WIDTH) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        File file = new File(directory, name).getCanonicalFile();
+        if (!file.getPath().startsWith(directory.getPath() + File.separator) || !file.isFile()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        MappedDataset dataset;
+        try {
+            dataset = getDataset(file, elementSize);
+        } catch (IOException ex) {
+            log("Cannot map " + file + ": " + ex.getMessage());
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long start = Math.max(0, dataset.lowerBound(from) - 1);
+        long end = Math.min(dataset.length(), dataset.upperBound(to) + 1);
+        response.setContentType(CONTENT_TYPE);
+        WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+        if (width == 0 || end - start <= 4L * width) {
+            response.setHeader("Content-Length", String.valueOf(2 * (end - start) * elementSize));
+            dataset.transfer(start, end, target);
+        } else {
+            dataset.decimate(start, end, width, target);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        mappings = null;
+    }
+
+    /**
+     * Returns the mapped dataset of the given file, mapping it when it is not
+     * one of the recently used datasets. A modified file is mapped again.
+     *
+     * @param file The dataset file.
+     * @param elementSize The size of a value in bytes.
+     * @return The mapped dataset.
+     * @throws IOException When the file cannot be mapped.
+     */
+    private MappedDataset getDataset(File file, int elementSize) throws IOException {
+        String key = elementSize + ":" + file.lastModified() + ":" + file.getPath();
+        synchronized (mappings) {
+            MappedDataset dataset = mappings.get(key);
+            if (dataset == null) {
+                dataset = new MappedDataset(file, elementSize);
+                mappings.put(key, dataset);
+            }
+            return dataset;
+        }
+    }
+
+    private static double getParameter(HttpServletRequest request, String name, double defaultValue) {
+        String value = request.getParameter(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A binary dataset mapped into memory. The dataset holds all the
+ * little-endian x values followed by all the y values, as read by the
+ * {@code SVGDataset} module. The x values must be in ascending order.
+ * <p>
+ * The file is mapped in segments of 1 GB, so datasets may be larger than a
+ * single mapping allows. The mappings stay valid after the file is closed,
+ * and are released when the dataset is garbage collected. The buffer
+ * positions are set through {@link Buffer}, so the class also runs on JREs
+ * without the covariant {@link ByteBuffer} overrides.
+ *
+ * @author R. M. Cuenen
+ */
+public class MappedDataset {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+    private final int elementSize;
+    private final long length;
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Maps the given dataset file.
+     *
+     * @param file The dataset file.
+     * @param elementSize The size of a value in bytes: 8 for float64 or 4 for
+     * float32.
+     * @throws IOException When the file cannot be mapped, or its size does
+     * not match the element size.
+     */
+    public MappedDataset(File file, int elementSize) throws IOException {
+        if (elementSize != 8 && elementSize != 4) {
+            throw new IllegalArgumentException("Invalid element size: " + elementSize);
+        }
+        this.elementSize = elementSize;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size % (2 * elementSize) != 0) {
+                throw new IOException("Invalid dataset length: " + size);
+            }
+            length = size / (2 * elementSize);
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(size - position, SEGMENT_MASK + 1));
+                segments[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of points in the dataset.
+     *
+     * @return The number of points.
+     */
+    public long length() {
+        return length;
+    }
+
+    /**
+     * Returns the x value of the given point.
+     *
+     * @param index The index of the point.
+     * @return The x value.
+     */
+    public double x(long index) {
+        return value(index * elementSize);
+    }
+
+    /**
+     * Returns the y value of the given point.
+     *
+     * @param index The index of the point.
+     * @return The y value.
+     */
+    public double y(long index) {
+        return value((length + index) * elementSize);
+    }
+
+    /**
+     * Returns the index of the first point with an x value not less than the
+     * given value, by binary search over the x values.
+     *
+     * @param x The x value.
+     * @return The index of the point, or the number of points when all x
+     * values are less.
+     */
+    public long lowerBound(double x) {
+        long low = 0;
+        long high = length;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (x(mid) < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first point with an x value greater than the
+     * given value, by binary search over the x values.
+     *
+     * @param x The x value.
+     * @return The index of the point, or the number of points when no x value
+     * is greater.
+     */
+    public long upperBound(double x) {
+        long low = 0;
+        long high = length;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (x(mid) <= x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the points of the given slice, in the format of the dataset
+     * itself. The mapped buffers are passed to the channel as they are; the
+     * channel determines whether they are copied. A channel over a stream,
+     * such as a servlet response, copies them through a small heap buffer.
+     *
+     * @param start The index of the first point.
+     * @param end The index after the last point.
+     * @param target The channel to write to.
+     * @throws IOException When writing fails.
+     */
+    public void transfer(long start, long end, WritableByteChannel target) throws IOException {
+        write(start * elementSize, end * elementSize, target);
+        write((length + start) * elementSize, (length + end) * elementSize, target);
+    }
+
+    /**
+     * Writes the points of the given slice decimated to the given number of
+     * pixel columns, in the format of the dataset itself. Of every column only
+     * the first, last, minimum and maximum point are written (the M4
+     * aggregation, as done by the {@code SVGDataset} module). Slices with at
+     * most four points per column are transferred unchanged.
+     *
+     * @param start The index of the first point.
+     * @param end The index after the last point.
+     * @param columns The number of pixel columns.
+     * @param target The channel to write to.
+     * @return The number of points written.
+     * @throws IOException When writing fails.
+     */
+    public long decimate(long start, long end, int columns, WritableByteChannel target) throws IOException {
+        if (end - start <= 4L * columns) {
+            transfer(start, end, target);
+            return end - start;
+        }
+        long[] result = new long[4 * columns];
+        int count = 0;
+        double x0 = x(start);
+        double x1 = x(end - 1);
+        double scale = x1 > x0 ? columns / (x1 - x0) : 0;
+        long first = start;
+        long min = start;
+        long max = start;
+        int current = columnOf(x0, x0, scale, columns);
+        for (long i = start + 1; i <= end; i++) {
+            int column = i < end ? columnOf(x(i), x0, scale, columns) : -1;
+            if (column == current) {
+                double y = y(i);
+                if (y < y(min)) {
+                    min = i;
+                } else if (y > y(max)) {
+                    max = i;
+                }
+                continue;
+            }
+            long last = i - 1;
+            long low = Math.min(min, max);
+            long high = Math.max(min, max);
+            result[count++] = first;
+            if (low != first) {
+                result[count++] = low;
+            }
+            if (high != low && high != last) {
+                result[count++] = high;
+            }
+            if (last != first && last != low) {
+                result[count++] = last;
+            }
+            first = min = max = i;
+            current = column;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 * count * elementSize).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < count; i++) {
+            put(buffer, x(result[i]));
+        }
+        for (int i = 0; i < count; i++) {
+            put(buffer, y(result[i]));
+        }
+        ((Buffer) buffer).flip();
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return count;
+    }
+
+    private double value(long position) {
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        int offset = (int) (position & SEGMENT_MASK);
+        return elementSize == 8 ? segment.getDouble(offset) : segment.getFloat(offset);
+    }
+
+    private void put(ByteBuffer buffer, double value) {
+        if (elementSize == 8) {
+            buffer.putDouble(value);
+        } else {
+            buffer.putFloat((float) value);
+        }
+    }
+
+    private void write(long from, long to, WritableByteChannel target) throws IOException {
+        while (from < to) {
+            int index = (int) (from >>> SEGMENT_SHIFT);
+            ByteBuffer slice = segments[index].duplicate();
+            int offset = (int) (from & SEGMENT_MASK);
+            int limit = (int) Math.min(slice.capacity(), offset + (to - from));
+            ((Buffer) slice).limit(limit);
+            ((Buffer) slice).position(offset);
+            from += limit - offset;
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+        }
+    }
+
+    private static int columnOf(double x, double x0, double scale, int columns) {
+        int column = (int) Math.floor((x - x0) * scale);
+        return column < 0 ? 0 : (column < columns ? column : columns - 1);
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.server;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.script.ScriptException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartDocument;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+/**
+ * This class expands the plot elements of an SVG document into path elements,
+ * streaming the document from input to output. The SVG Plot module loader
+ * script (the script element with identifier {@code svgplot-loader}) is
+ * removed, so the result can be shown without evaluating any plots on the
+ * client. The output is always encoded in UTF-8.
+ * <p>
+ * Plot elements that are only rendered on the client, those with a
+ * {@code series}, {@code src} or {@code segment} attribute or with
+ * {@code samples="auto"} or {@code zoom="true"}, which depend on the on-screen
+ * size, and those referring to document parameters, whose values are set on
+ * the client, are passed on unchanged. The loader script is kept when the document still uses it: when
+ * such a plot element occurs, or any other script element, which may require
+ * modules or add plot elements at runtime. The events following the loader
+ * are held back until this is known.
+ *
+ * @author R. M. Cuenen
+ */
+public class PlotExpander {
+
+    /**
+     * The SVG namespace.
+     */
+    public static final String SVG_NS = "http://www.w3.org/2000/svg";
+    private static final String ENCODING = "UTF-8";
+    private static final String PLOT = "plot";
+    private static final String PATH = "path";
+    private static final String SCRIPT = "script";
+    private static final String LOADER_ID = "svgplot-loader";
+    private static final QName ID = new QName("id");
+    private static final Map<QName, String> CLIENT_ATTRIBUTES = new LinkedHashMap<>();
+    private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+    private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+    private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+    private final XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+    static {
+        /* The attributes of plot elements only rendered on the client, with
+         * the value requiring it, or null for any value. */
+        CLIENT_ATTRIBUTES.put(new QName("series"), null);
+        CLIENT_ATTRIBUTES.put(new QName("src"), null);
+        CLIENT_ATTRIBUTES.put(new QName("segment"), null);
+        CLIENT_ATTRIBUTES.put(new QName("samples"), "auto");
+        CLIENT_ATTRIBUTES.put(new QName("zoom"), "true");
+    }
+
+    /**
+     * Creates a new expander. The expander does not resolve DTDs or external
+     * entities, and keeps CDATA sections when the StAX implementation reports
+     * them.
+     */
+    public PlotExpander() {
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        if (inputFactory.isPropertySupported(REPORT_CDATA)) {
+            inputFactory.setProperty(REPORT_CDATA, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Expands the plot elements of the given document.
+     *
+     * @param in The SVG document.
+     * @param out The stream to write the expanded document to.
+     * @param renderer The renderer converting the plot elements.
+     * @return The number of expanded plot elements.
+     * @throws XMLStreamException When the document cannot be read or written.
+     * @throws ScriptException When a plot element cannot be converted.
+     */
+    public int expand(InputStream in, OutputStream out, PlotRenderer renderer)
+            throws XMLStreamException, ScriptException {
+        XMLEventReader reader = inputFactory.createXMLEventReader(in);
+        XMLEventWriter writer = outputFactory.createXMLEventWriter(out, ENCODING);
+        int count = 0;
+        boolean client = false;
+        boolean inClientPlot = false;
+        List<XMLEvent> loader = null;
+        List<XMLEvent> held = null;
+        try {
+            while (reader.hasNext()) {
+                XMLEvent event = reader.nextEvent();
+                if (event.isStartDocument()) {
+                    event = startDocument((StartDocument) event);
+                } else if (event.isStartElement()) {
+                    StartElement start = event.asStartElement();
+                    if (isLoader(start)) {
+                        List<XMLEvent> element = readElement(reader, start);
+                        if (client) {
+                            addAll(writer, element);
+                        } else {
+                            loader = element;
+                            held = new ArrayList<>();
+                        }
+                        continue;
+                    } else if (isScript(start.getName()) || isPlot(start.getName()) && isClientPlot(start, renderer)) {
+                        if (held != null) {
+                            addAll(writer, loader);
+                            addAll(writer, held);
+                            held = null;
+                        }
+                        client = true;
+                        inClientPlot = isPlot(start.getName());
+                    } else if (isPlot(start.getName())) {
+                        event = expandPlot(start, renderer);
+                        count++;
+                    }
+                } else if (event.isEndElement() && isPlot(event.asEndElement().getName())) {
+                    if (inClientPlot) {
+                        inClientPlot = false;
+                    } else {
+                        QName name = event.asEndElement().getName();
+                        event = eventFactory.createEndElement(name.getPrefix(), name.getNamespaceURI(), PATH);
+                    }
+                }
+                if (held != null) {
+                    held.add(event);
+                } else {
+                    writer.add(event);
+                }
+            }
+            if (held != null) {
+                addAll(writer, held);
+            }
+            writer.flush();
+        } finally {
+            writer.close();
+            reader.close();
+        }
+        return count;
+    }
+
+    private XMLEvent startDocument(StartDocument start) {
+        if (start.standaloneSet()) {
+            return eventFactory.createStartDocument(ENCODING, start.getVersion(), start.isStandalone());
+        }
+        return eventFactory.createStartDocument(ENCODING, start.getVersion());
+    }
+
+    private XMLEvent expandPlot(StartElement plot, PlotRenderer renderer) throws ScriptException {
+        Map<String, QName> names = new LinkedHashMap<>();
+        Map<String, String> attributes = readAttributes(plot, names);
+        List<Attribute> result = new ArrayList<>();
+        for (Map.Entry<String, String> attribute : renderer.render(attributes).entrySet()) {
+            QName name = names.get(attribute.getKey());
+            if (name == null) {
+                name = new QName(attribute.getKey());
+            }
+            result.add(eventFactory.createAttribute(name, attribute.getValue()));
+        }
+        QName name = plot.getName();
+        return eventFactory.createStartElement(name.getPrefix(), name.getNamespaceURI(), PATH,
+                result.iterator(), plot.getNamespaces());
+    }
+
+    private static Map<String, String> readAttributes(StartElement plot, Map<String, QName> names) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        Iterator<?> iterator = plot.getAttributes();
+        while (iterator.hasNext()) {
+            Attribute attribute = (Attribute) iterator.next();
+            String name = qualifiedName(attribute.getName());
+            names.put(name, attribute.getName());
+            attributes.put(name, attribute.getValue());
+        }
+        return attributes;
+    }
+
+    private List<XMLEvent> readElement(XMLEventReader reader, StartElement start) throws XMLStreamException {
+        List<XMLEvent> events = new ArrayList<>();
+        events.add(start);
+        int depth = 1;
+        while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static void addAll(XMLEventWriter writer, List<XMLEvent> events) throws XMLStreamException {
+        for (XMLEvent event : events) {
+            writer.add(event);
+        }
+    }
+
+    private static boolean isPlot(QName name) {
+        return PLOT.equals(name.getLocalPart()) && SVG_NS.equals(name.getNamespaceURI());
+    }
+
+    private static boolean isScript(QName name) {
+        return SCRIPT.equals(name.getLocalPart()) && SVG_NS.equals(name.getNamespaceURI());
+    }
+
+    private static boolean isClientPlot(StartElement start, PlotRenderer renderer) throws ScriptException {
+        for (Map.Entry<QName, String> entry : CLIENT_ATTRIBUTES.entrySet()) {
+            Attribute attribute = start.getAttributeByName(entry.getKey());
+            if (attribute != null && (entry.getValue() == null || entry.getValue().equals(attribute.getValue()))) {
+                return true;
+            }
+        }
+        Map<String, String> attributes = readAttributes(start, new LinkedHashMap<String, QName>());
+        return !renderer.parameters(attributes).isEmpty();
+    }
+
+    private static boolean isLoader(StartElement start) {
+        if (isScript(start.getName())) {
+            Attribute id = start.getAttributeByName(ID);
+            return id != null && LOADER_ID.equals(id.getValue());
+        }
+        return false;
+    }
+
+    private static String qualifiedName(QName name) {
+        if (name.getPrefix() == null || name.getPrefix().isEmpty()) {
+            return name.getLocalPart();
+        }
+        return name.getPrefix() + ':' + name.getLocalPart();
+    }
+}
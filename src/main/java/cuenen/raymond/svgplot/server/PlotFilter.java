@@ -0,0 +1,371 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.script.ScriptException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * This filter pre-renders SVG documents: the plot elements of the response
+ * are expanded into path elements on the server by a {@link PlotExpander},
+ * using a pool of warmed script engines running the modules of the webapp.
+ * The rendered documents are cached by the hash of their source and of the
+ * module sources, which is also used as the ETag for conditional requests, so
+ * neither is reused after the modules change.
+ * <p>
+ * The filter accepts the following init-parameters:
+ * <ul>
+ * <li>{@code engine}: The script engine name (nashorn).</li>
+ * <li>{@code engines}: The number of pooled engines (the number of
+ * processors).</li>
+ * <li>{@code cache-size}: The maximum number of cached documents (100).</li>
+ * <li>{@code modules}: The path of the modules in the webapp (/modules).</li>
+ * </ul>
+ * When no script engine is available, or a document cannot be rendered, the
+ * response is passed on unchanged and the plots are rendered by the client.
+ * Such a response is neither cached nor tagged, so a later request tries to
+ * render the document again.
+ * The webapp bundles the standalone Nashorn engine, which requires Java 11 or
+ * later.
+ *
+ * @author R. M. Cuenen
+ */
+public class PlotFilter implements Filter {
+
+    private static final String CONTENT_TYPE = "image/svg+xml";
+    private static final String DIGEST = "SHA-1";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private ServletContext context;
+    private RendererPool pool;
+    private Map<String, byte[]> cache;
+    private byte[] modulesDigest;
+    private final PlotExpander expander = new PlotExpander();
+
+    @Override
+    public void init(FilterConfig config) throws ServletException {
+        context = config.getServletContext();
+        String engine = getParameter(config, "engine", PlotRenderer.DEFAULT_ENGINE);
+        int engines = Integer.parseInt(getParameter(config, "engines",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        final int cacheSize = Integer.parseInt(getParameter(config, "cache-size", "100"));
+        final String modules = getParameter(config, "modules", "/modules");
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > cacheSize;
+            }
+        });
+        try {
+            modulesDigest = digestModules(modules);
+            pool = new RendererPool(engines, engine, new PlotRenderer.ModuleSource() {
+
+                @Override
+                public InputStream open(String id) {
+                    return context.getResourceAsStream(modules + '/' + id + ".js");
+                }
+            });
+        } catch (ScriptException | IOException ex) {
+            context.log("Plots are not pre-rendered: " + ex.getMessage());
+            pool = null;
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (pool == null || !(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        BufferedResponse buffer = new BufferedResponse(httpResponse);
+        chain.doFilter(request, buffer);
+        byte[] source = buffer.getContent();
+        if (buffer.status != HttpServletResponse.SC_OK || !isSVG(buffer.getContentType())) {
+            buffer.commit(source);
+            return;
+        }
+        String hash = hash(source);
+        String etag = '"' + hash + '"';
+        if (matches(httpRequest.getHeader("If-None-Match"), etag)) {
+            httpResponse.setHeader("ETag", etag);
+            httpResponse.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] rendered = cache.get(hash);
+        if (rendered == null) {
+            rendered = render(source, httpRequest.getRequestURI());
+        }
+        if (rendered == null) {
+            /* Not cached, nor tagged, so the next request renders again. */
+            rendered = source;
+        } else {
+            cache.put(hash, rendered);
+            httpResponse.setHeader("ETag", etag);
+        }
+        httpResponse.setContentType(CONTENT_TYPE);
+        httpResponse.setContentLength(rendered.length);
+        httpResponse.getOutputStream().write(rendered);
+    }
+
+    @Override
+    public void destroy() {
+        pool = null;
+        cache = null;
+    }
+
+    /**
+     * Renders the given document.
+     *
+     * @param source The SVG document.
+     * @param uri The request URI, for logging.
+     * @return The rendered document, or {@code null} when it cannot be
+     * rendered.
+     * @throws ServletException When interrupted while waiting for an engine.
+     */
+    private byte[] render(byte[] source, String uri) throws ServletException {
+        PlotRenderer renderer;
+        try {
+            renderer = pool.borrow();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServletException(ex);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(source.length * 2);
+            expander.expand(new ByteArrayInputStream(source), out, renderer);
+            return out.toByteArray();
+        } catch (XMLStreamException | ScriptException ex) {
+            context.log("Cannot pre-render " + uri + ": " + ex.getMessage());
+            return null;
+        } finally {
+            pool.release(renderer);
+        }
+    }
+
+    private static String getParameter(FilterConfig config, String name, String defaultValue) {
+        String value = config.getInitParameter(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static boolean isSVG(String contentType) {
+        return contentType != null && contentType.startsWith(CONTENT_TYPE);
+    }
+
+    private static boolean matches(String header, String etag) {
+        if (header == null) {
+            return false;
+        }
+        for (String tag : header.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the digest of all module sources, in the order of their paths.
+     *
+     * @param modules The path of the modules in the webapp.
+     * @return The digest of the module sources.
+     * @throws IOException When a module source cannot be read.
+     * @throws ServletException When the digest algorithm is not available.
+     */
+    private byte[] digestModules(String modules) throws IOException, ServletException {
+        MessageDigest digest = createDigest();
+        @SuppressWarnings("unchecked")
+        Set<String> paths = context.getResourcePaths(modules + '/');
+        if (paths != null) {
+            byte[] buffer = new byte[8192];
+            for (String path : new TreeSet<>(paths)) {
+                if (!path.endsWith(".js")) {
+                    continue;
+                }
+                try (InputStream in = context.getResourceAsStream(path)) {
+                    if (in == null) {
+                        continue;
+                    }
+                    digest.update(path.getBytes("UTF-8"));
+                    for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+        }
+        return digest.digest();
+    }
+
+    private String hash(byte[] content) throws ServletException {
+        MessageDigest md = createDigest();
+        md.update(modulesDigest);
+        byte[] digest = md.digest(content);
+        char[] result = new char[2 * digest.length];
+        for (int i = 0; i < digest.length; i++) {
+            result[2 * i] = HEX[(digest[i] >> 4) & 0xF];
+            result[2 * i + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(result);
+    }
+
+    private static MessageDigest createDigest() throws ServletException {
+        try {
+            return MessageDigest.getInstance(DIGEST);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new ServletException(ex);
+        }
+    }
+
+    /**
+     * A response wrapper buffering the content, so it can be rendered before
+     * it is sent.
+     */
+    private static final class BufferedResponse extends HttpServletResponseWrapper {
+
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private ServletOutputStream stream;
+        private PrintWriter writer;
+        private int status = SC_OK;
+
+        BufferedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (stream == null) {
+                stream = new ServletOutputStream() {
+
+                    @Override
+                    public void write(int b) {
+                        content.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) {
+                        content.write(b, off, len);
+                    }
+                };
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(content, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setStatus(int sc) {
+            status = sc;
+            super.setStatus(sc);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            status = sc;
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            status = sc;
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            status = SC_FOUND;
+            super.sendRedirect(location);
+        }
+
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void flushBuffer() {
+        }
+
+        /**
+         * Returns the buffered content.
+         *
+         * @return The content written so far.
+         */
+        byte[] getContent() {
+            if (writer != null) {
+                writer.flush();
+            }
+            return content.toByteArray();
+        }
+
+        /**
+         * Writes the given content to the wrapped response.
+         *
+         * @param data The content.
+         * @throws IOException When the content cannot be written.
+         */
+        void commit(byte[] data) throws IOException {
+            if (data.length > 0 && !getResponse().isCommitted()) {
+                getResponse().setContentLength(data.length);
+                getResponse().getOutputStream().write(data);
+            }
+        }
+    }
+}
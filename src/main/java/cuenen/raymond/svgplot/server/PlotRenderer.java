@@ -0,0 +1,205 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.script.Invocable;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+/**
+ * This class converts plot elements into path elements by running the
+ * {@code SVGPlotter} module in a JavaScript engine. A renderer is not thread
+ * safe; use one renderer per thread, e.g. through a {@link RendererPool}.
+ *
+ * @author R. M. Cuenen
+ */
+public class PlotRenderer {
+
+    /**
+     * The default script engine name.
+     */
+    public static final String DEFAULT_ENGINE = "nashorn";
+    private static final String SHIM = "PlotShim.js";
+    private static final String PLOTTER = "SVGPlotter";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final ScriptEngine engine;
+    private final Invocable invocable;
+    private final ModuleSource source;
+    private final Set<String> loaded = new HashSet<>();
+
+    /**
+     * The source of the module files.
+     */
+    public interface ModuleSource {
+
+        /**
+         * Opens the module file of the given module.
+         *
+         * @param id The module identifier.
+         * @return The module file's content, or {@code null} when not found.
+         * @throws IOException When the module file cannot be opened.
+         */
+        InputStream open(String id) throws IOException;
+    }
+
+    /**
+     * Creates a new renderer in a new script engine, and loads the
+     * {@code SVGPlotter} module with its dependencies.
+     *
+     * @param engineName The script engine name.
+     * @param source The source of the module files.
+     * @throws ScriptException When the engine cannot be found or a module
+     * cannot be evaluated.
+     * @throws IOException When a module cannot be read.
+     */
+    public PlotRenderer(String engineName, ModuleSource source) throws ScriptException, IOException {
+        engine = new ScriptEngineManager().getEngineByName(engineName);
+        if (engine == null) {
+            throw new ScriptException("No script engine found: " + engineName);
+        }
+        invocable = (Invocable) engine;
+        this.source = source;
+        evaluate(PlotRenderer.class.getResourceAsStream(SHIM), SHIM);
+        load(PLOTTER);
+    }
+
+    /**
+     * Converts a plot element into a path element.
+     *
+     * @param attributes The plot element's attributes (name to value).
+     * @return The path element's attributes (name to value), in document
+     * order.
+     * @throws ScriptException When the plot element cannot be converted.
+     */
+    public Map<String, String> render(Map<String, String> attributes) throws ScriptException {
+        Map<String, String> result = new LinkedHashMap<>();
+        invoke("render", toArray(attributes), result);
+        return result;
+    }
+
+    /**
+     * Returns the document parameters a plot element refers to: the variables
+     * of its function other than its own variable and swept parameter. Their
+     * values are only known on the client.
+     *
+     * @param attributes The plot element's attributes (name to value).
+     * @return The parameter names, without '#'.
+     * @throws ScriptException When the plot element's attributes cannot be
+     * parsed.
+     */
+    public List<String> parameters(Map<String, String> attributes) throws ScriptException {
+        String names = String.valueOf(invoke("parameters", (Object) toArray(attributes)));
+        return names.isEmpty() ? Collections.<String>emptyList() : Arrays.asList(names.split(","));
+    }
+
+    /**
+     * Returns the given module, loading it and its dependencies first when
+     * needed. This gives direct access to the modules, e.g. to benchmark them.
+     *
+     * @param id The module identifier.
+     * @return The module object.
+     * @throws IOException When a module cannot be read.
+     * @throws ScriptException When a module cannot be evaluated.
+     */
+    public Object require(String id) throws IOException, ScriptException {
+        load(id);
+        return invokeMethod(engine.get("SVGModule"), "require", id);
+    }
+
+    /**
+     * Calls the given method on the given object of this renderer's engine.
+     *
+     * @param target The JavaScript object, e.g. a module object.
+     * @param method The method name.
+     * @param args The arguments.
+     * @return The result of the call.
+     * @throws ScriptException When the call fails.
+     */
+    public Object invokeMethod(Object target, String method, Object... args) throws ScriptException {
+        try {
+            return invocable.invokeMethod(target, method, args);
+        } catch (NoSuchMethodException ex) {
+            throw new ScriptException(ex);
+        }
+    }
+
+    private Object invoke(String function, Object... args) throws ScriptException {
+        try {
+            return invocable.invokeFunction(function, args);
+        } catch (NoSuchMethodException ex) {
+            throw new ScriptException(ex);
+        }
+    }
+
+    private static String[] toArray(Map<String, String> attributes) {
+        String[] input = new String[2 * attributes.size()];
+        int index = 0;
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            input[index++] = attribute.getKey();
+            input[index++] = attribute.getValue();
+        }
+        return input;
+    }
+
+    private void load(String id) throws IOException, ScriptException {
+        if (loaded.add(id)) {
+            InputStream in = source.open(id);
+            if (in == null) {
+                throw new IOException("Module not found: " + id);
+            }
+            evaluate(in, id + ".js");
+            Object dependencies = invokeMethod(engine.get("SVGModule"), "undefinedDependencies", id);
+            for (String dependency : String.valueOf(dependencies).split(",")) {
+                if (!dependency.isEmpty()) {
+                    load(dependency);
+                }
+            }
+        }
+    }
+
+    private void evaluate(InputStream in, String name) throws IOException, ScriptException {
+        try (Reader reader = new InputStreamReader(in, UTF_8)) {
+            engine.put(ScriptEngine.FILENAME, name);
+            engine.eval(reader);
+        }
+    }
+}
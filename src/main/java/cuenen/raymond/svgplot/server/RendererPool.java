@@ -0,0 +1,90 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot.server;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.script.ScriptException;
+
+/**
+ * A fixed-size pool of warmed {@link PlotRenderer} objects, each with its own
+ * script engine.
+ *
+ * @author R. M. Cuenen
+ */
+public class RendererPool {
+
+    private static final String WARM_UP_FUNCTION = "sin(#x r)";
+    private static final String WARM_UP_SAMPLES = "1000";
+    private final BlockingQueue<PlotRenderer> renderers;
+
+    /**
+     * Creates the pool, creating and warming all renderers.
+     *
+     * @param size The number of renderers.
+     * @param engineName The script engine name.
+     * @param source The source of the module files.
+     * @throws ScriptException When a renderer cannot be created.
+     * @throws IOException When a module cannot be read.
+     */
+    public RendererPool(int size, String engineName, PlotRenderer.ModuleSource source)
+            throws ScriptException, IOException {
+        renderers = new ArrayBlockingQueue<>(size);
+        Map<String, String> plot = new HashMap<>();
+        plot.put("function", WARM_UP_FUNCTION);
+        plot.put("samples", WARM_UP_SAMPLES);
+        for (int i = 0; i < size; i++) {
+            PlotRenderer renderer = new PlotRenderer(engineName, source);
+            renderer.render(plot);
+            renderers.add(renderer);
+        }
+    }
+
+    /**
+     * Takes a renderer from the pool, waiting until one is available.
+     *
+     * @return The renderer, to be returned by {@link #release(PlotRenderer)}.
+     * @throws InterruptedException When interrupted while waiting.
+     */
+    public PlotRenderer borrow() throws InterruptedException {
+        return renderers.take();
+    }
+
+    /**
+     * Returns the given renderer to the pool.
+     *
+     * @param renderer The renderer obtained by {@link #borrow()}.
+     */
+    public void release(PlotRenderer renderer) {
+        renderers.add(renderer);
+    }
+}
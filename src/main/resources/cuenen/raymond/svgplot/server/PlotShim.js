@@ -0,0 +1,196 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+/**
+ * The host for running the SVG Plot modules in a JVM JavaScript engine.
+ * It provides the SVGModule object, with only 'define' and 'require', and
+ * just enough of the window and document objects for the SVGPlotter.
+ */
+var window = this;
+
+/**
+ * @class A detached element that only keeps its attributes; the children of
+ *        a plot element are copied by the PlotExpander.
+ * @name Element
+ * @param {String} name The element name.
+ */
+function Element(name) {
+    this.nodeName = name;
+    this.tagName = name;
+    this.attributes = [];
+    this.firstChild = null;
+    this.parentNode = null;
+}
+
+/**
+ * @lends Element
+ */
+Element.prototype = {
+    getAttribute: function (name) {
+        for (var i = 0; i < this.attributes.length; i++) {
+            if (this.attributes[i].name === name) {
+                return this.attributes[i].value;
+            }
+        }
+        return null;
+    },
+    hasAttribute: function (name) {
+        return this.getAttribute(name) !== null;
+    },
+    setAttribute: function (name, value) {
+        for (var i = 0; i < this.attributes.length; i++) {
+            if (this.attributes[i].name === name) {
+                this.attributes[i].value = String(value);
+                return;
+            }
+        }
+        this.attributes.push({name: name, value: String(value)});
+    },
+    dispatchEvent: function (event) {
+        return true;
+    }
+};
+
+var document = {
+    createElementNS: function (ns, name) {
+        return new Element(name);
+    },
+    createEvent: function (type) {
+        return {
+            initCustomEvent: function (type, bubbles, cancelable, detail) {
+                this.type = type;
+                this.detail = detail;
+            }
+        };
+    }
+};
+
+var SVGModule = (function () {
+    var definitions = {};
+    var modules = {};
+
+    return {
+        SVG_NS: "http://www.w3.org/2000/svg",
+        XLINK_NS: "http://www.w3.org/1999/xlink",
+        /**
+         * Registers the module definition; the module is created on its
+         * first 'require'.
+         */
+        define: function (id, dependencies, factory) {
+            definitions[id] = {dependencies: dependencies, factory: factory};
+        },
+        /**
+         * Returns the dependencies of the given module that are not yet
+         * defined, separated by commas.
+         */
+        undefinedDependencies: function (id) {
+            var result = [];
+            var dependencies = definitions[id].dependencies;
+            for (var i = 0; i < dependencies.length; i++) {
+                if (!definitions.hasOwnProperty(dependencies[i])) {
+                    result.push(dependencies[i]);
+                }
+            }
+            return result.join();
+        },
+        /**
+         * Returns the module, creating it (and its dependencies) when needed.
+         */
+        require: function (id) {
+            if (!modules.hasOwnProperty(id)) {
+                var definition = definitions[id];
+                var args = [];
+                for (var i = 0; i < definition.dependencies.length; i++) {
+                    args.push(SVGModule.require(definition.dependencies[i]));
+                }
+                modules[id] = definition.factory.apply(window, args);
+            }
+            return modules[id];
+        }
+    };
+})();
+
+/**
+ * Converts a plot element into path attributes.
+ *
+ * @param {String[]} attributes The plot element's attribute names and values,
+ *                              alternately.
+ * @param {java.util.Map} sink Receives the path element's attributes.
+ */
+function render(attributes, sink) {
+    var plot = document.createElementNS(SVGModule.SVG_NS, "plot");
+    for (var i = 0; i < attributes.length; i += 2) {
+        plot.setAttribute(String(attributes[i]), String(attributes[i + 1]));
+    }
+    var path = SVGModule.require("SVGPlotter").handle(plot);
+    for (var j = 0; j < path.attributes.length; j++) {
+        sink.put(path.attributes[j].name, path.attributes[j].value);
+    }
+}
+
+/**
+ * Returns the document parameters a plot element refers to: the variables of
+ * its 'function' (or 'function-bc') attribute other than its own variable and
+ * the parameter of its 'sweep' attribute. Their values are only known on the
+ * client.
+ *
+ * @param {String[]} attributes The plot element's attribute names and values,
+ *                              alternately.
+ * @returns {String} The parameter names (without '#'), separated by commas.
+ */
+function parameters(attributes) {
+    var SVGPlotAttributes = SVGModule.require("SVGPlotAttributes");
+    var parsed = {};
+    var names = ["variable", "sweep", "function", "function-bc"];
+    for (var i = 0; i < attributes.length; i += 2) {
+        var name = String(attributes[i]);
+        if (names.indexOf(name) !== -1) {
+            parsed[name] = SVGPlotAttributes.create(name);
+            parsed[name].parse(String(attributes[i + 1]));
+        }
+    }
+    var functions = parsed["function-bc"] || parsed["function"];
+    if (typeof functions === 'undefined') {
+        return "";
+    }
+    var variable = (parsed["variable"] || SVGPlotAttributes.create("variable")).value.substring(1);
+    var sweep = typeof parsed["sweep"] === 'undefined' ? variable : parsed["sweep"].value.name;
+    var result = [];
+    for (var j = 0; j < functions.value.length; j++) {
+        if (typeof functions.value[j] === 'undefined') {
+            continue;
+        }
+        var variables = functions.value[j].variables();
+        for (var k = 0; k < variables.length; k++) {
+            if (variables[k] !== variable && variables[k] !== sweep && result.indexOf(variables[k]) === -1) {
+                result.push(variables[k]);
+            }
+        }
+    }
+    return result.join();
+}
@@ -114,17 +114,32 @@
      * @name Module
      * @param {String} moduleId The module identifier.
      * @property {Module[]} dependencies List of dependencies.
+     * @property {Module[]} dependents List of modules waiting for the execution
+     *           of this module.
+     * @property {Number} pending The number of dependencies that are not yet
+     *           executed. This is only set once the module can be scheduled.
+     * @property {Boolean} checked Indicates whether or not the module is
+     *           checked for circular dependencies. Its dependencies have all
+     *           arrived by then, so it never needs to be checked again.
      * @property {String} moduleId The module identifier.
      * @property {String} file The JavaScript file of this module.
      * @property {String} name The module name.
      * @property {Status} injected The resolve status.
      * @property {Process} executed The process status.
+     * @property {Boolean} required Indicates whether or not the module is
+     *           (indirectly) requested and should therefore be executed.
      * @property {Object} exports The module itself, made available by the execution
      *           of the definition function.
      * @property {ModuleFactory} factory The definition function.
+     * @property {String} source How the module's resources are loaded:
+     *           'network', 'cache' or 'bundle'.
+     * @property {Object.<String, Number>} timing The time the module was
+     *           requested, arrived, started and finished executing. This is
+     *           only recorded when the loader statistics are enabled.
      */
     function Module(moduleId) {
         this.dependencies = [];
+        this.dependents = [];
         this.moduleId = moduleId;
         this.file = moduleId + ".js";
         this.name = this.moduleId.replace(/^.*\//, "");
@@ -164,6 +179,7 @@
                 mid: this.moduleId,
                 file: this.file,
                 executed: this.executed,
+                required: this.required,
                 dep: '[' + this.dependencies.join(", ") + ']',
                 def: '{' + (this.factory ? ' ' + this.factory + ' ' : '') + '}',
                 result: '{' + (this.exports ? ' ' + this.exports + ' ' : '') + '}',
@@ -172,6 +188,202 @@
         }
     };
 
+    /**
+     * Creates the ModuleCache with the given capacity.
+     * 
+     * @class The ModuleCache keeps the sources of versioned modules in the
+     *        local storage, so they can be evaluated without any network
+     *        request on subsequent page loads. The least recently used
+     *        sources are evicted when the capacity is exceeded.
+     * @name ModuleCache
+     * @param {Number} capacity The maximum number of characters to store.
+     * @property {Number} capacity The maximum number of characters to store.
+     * @property {Storage} storage The storage holding the module sources.
+     * @property {Object[]} index The cached modules (identifier and size), the
+     *           least recently used first.
+     * @property {Object} statistics The cache hits, misses, stored and evicted
+     *           modules, and the total size.
+     */
+    function ModuleCache(capacity) {
+        this.capacity = capacity;
+        this.storage = window.localStorage;
+        if (!this.storage) {
+            throw new Error("No local storage available");
+        }
+        this.index = [];
+        this.statistics = {hits: 0, misses: 0, stored: 0, evicted: 0, size: 0};
+        try {
+            var index = JSON.parse(this.storage.getItem(CACHE_INDEX));
+            if (Object.prototype.toString.call(index) === '[object Array]') {
+                this.index = index;
+            }
+        } catch (e) {
+            this.index = [];
+        }
+        this.rebuild();
+        for (var i = 0; i < this.index.length; i++) {
+            this.statistics.size += this.index[i].size;
+        }
+    }
+
+    /**
+     * @lends ModuleCache#
+     */
+    ModuleCache.prototype = {
+        /**
+         * Retrieve the source of the given module version. A cached source of
+         * another version is stale and therefore removed.
+         * 
+         * @param {String} moduleId The module identifier.
+         * @param {String} version The expected module version.
+         * @returns {String} The module source, or null when not cached.
+         */
+        get: function (moduleId, version) {
+            var entry = null;
+            try {
+                entry = JSON.parse(this.storage.getItem(CACHE_PREFIX + moduleId));
+            } catch (e) {
+                entry = null;
+            }
+            if (entry !== null && entry.version === version) {
+                this.touch(moduleId);
+                this.statistics.hits++;
+                return entry.source;
+            }
+            if (entry !== null) {
+                this.remove(moduleId);
+            }
+            this.statistics.misses++;
+            return null;
+        },
+        /**
+         * Store the source of the given module version. Sources larger than
+         * the capacity are not stored.
+         * 
+         * @param {String} moduleId The module identifier.
+         * @param {String} version The module version.
+         * @param {String} source The module source.
+         */
+        put: function (moduleId, version, source) {
+            var size = source.length;
+            this.remove(moduleId);
+            if (size > this.capacity) {
+                return;
+            }
+            while (this.statistics.size + size > this.capacity && this.index.length > 0) {
+                this.remove(this.index[0].id);
+                this.statistics.evicted++;
+            }
+            try {
+                this.storage.setItem(CACHE_PREFIX + moduleId,
+                        JSON.stringify({version: version, source: source}));
+                this.index.push({id: moduleId, size: size});
+                this.statistics.size += size;
+                this.statistics.stored++;
+            } catch (e) {
+                /* The storage quota is exceeded, the module is just not cached. */
+            }
+            this.save();
+        },
+        /**
+         * Remove the source of the given module.
+         * 
+         * @param {String} moduleId The module identifier.
+         */
+        remove: function (moduleId) {
+            for (var i = 0; i < this.index.length; i++) {
+                if (this.index[i].id === moduleId) {
+                    this.statistics.size -= this.index[i].size;
+                    this.index.splice(i, 1);
+                    break;
+                }
+            }
+            this.storage.removeItem(CACHE_PREFIX + moduleId);
+            this.save();
+        },
+        /**
+         * Mark the given module as most recently used.
+         * 
+         * @param {String} moduleId The module identifier.
+         */
+        touch: function (moduleId) {
+            for (var i = 0; i < this.index.length; i++) {
+                if (this.index[i].id === moduleId) {
+                    this.index.push(this.index.splice(i, 1)[0]);
+                    this.save();
+                    break;
+                }
+            }
+        },
+        /**
+         * Remove all cached sources.
+         */
+        clear: function () {
+            while (this.index.length > 0) {
+                this.remove(this.index[0].id);
+            }
+        },
+        /**
+         * Reconcile the index with the stored sources. Sources missing from
+         * the index, because writing the index failed, are added as least
+         * recently used, and modules without a stored source are dropped
+         * from it. Sources stored under the keys of earlier versions are
+         * removed.
+         */
+        rebuild: function () {
+            var stored = {};
+            var stale = [];
+            for (var i = 0; i < this.storage.length; i++) {
+                var key = this.storage.key(i);
+                if (key.indexOf(CACHE_PREFIX) === 0) {
+                    stored[key.substring(CACHE_PREFIX.length)] = true;
+                } else if (key.indexOf(LEGACY_PREFIX) === 0 && key !== CACHE_INDEX) {
+                    stale.push(key);
+                }
+            }
+            var changed = stale.length > 0;
+            for (i = 0; i < stale.length; i++) {
+                this.storage.removeItem(stale[i]);
+            }
+            var index = [];
+            for (i = 0; i < this.index.length; i++) {
+                var entry = this.index[i];
+                if (entry && stored[entry.id] === true) {
+                    stored[entry.id] = false;
+                    index.push(entry);
+                } else {
+                    changed = true;
+                }
+            }
+            var orphans = [];
+            for (var moduleId in stored) {
+                if (stored.hasOwnProperty(moduleId) && stored[moduleId] === true) {
+                    changed = true;
+                    try {
+                        var source = JSON.parse(this.storage.getItem(CACHE_PREFIX + moduleId)).source;
+                        orphans.push({id: moduleId, size: source.length});
+                    } catch (e) {
+                        this.storage.removeItem(CACHE_PREFIX + moduleId);
+                    }
+                }
+            }
+            this.index = orphans.concat(index);
+            if (changed) {
+                this.save();
+            }
+        },
+        /**
+         * Write the index to the storage.
+         */
+        save: function () {
+            try {
+                this.storage.setItem(CACHE_INDEX, JSON.stringify(this.index));
+            } catch (e) {
+                /* The index is rebuilt from the stored sources on the next page load. */
+            }
+        }
+    };
+
     /**
      * Private constructor (singleton pattern).
      * 
@@ -184,11 +396,38 @@
      * @property {Object.<String, Module>} waiting Map containing modules for which
      *           the module resource is being loaded.
      * @property {Object.<String, Module>} modules Map containing the created modules.
+     * @property {Object.<String, (String[]|Object)>} manifest Map containing the
+     *           known dependencies (and versions) of modules, used to request
+     *           them in parallel.
+     * @property {Module[]} deferred List of modules requested while a bundle
+     *           is being loaded, or null when no bundle is being loaded.
+     * @property {Module[]} ready Queue of modules whose dependencies are all
+     *           executed, in the order they are to be executed.
+     * @property {Module[]} blocked List of scheduled modules waiting for their
+     *           dependencies, not yet checked for circular dependencies.
+     * @property {Boolean} executing Indicates whether or not the ready queue
+     *           is being processed.
+     * @property {ModuleCache} cache The persistent cache of module sources,
+     *           or null when caching is disabled.
+     * @property {Number} started The time the loader was created.
+     * @property {Number} finished The time the last module was executed.
+     * @property {Module[]} timeline The modules with recorded timing, in the
+     *           order they were first recorded, or null when the loader
+     *           statistics are disabled.
      */
     function ModuleLoader() {
         this.moduleBase = "";
         this.waiting = {};
         this.modules = {};
+        this.manifest = {};
+        this.deferred = null;
+        this.ready = [];
+        this.blocked = [];
+        this.executing = false;
+        this.cache = null;
+        this.started = now();
+        this.finished = this.started;
+        this.timeline = null;
     }
 
     /**
@@ -204,22 +443,34 @@
          */
         defineModule: function (name, factory) {
             var module = this.waiting[name];
-            if (typeof module !== 'undefined') {
+            if (typeof module === 'undefined') {
+                /* Defined by a bundle, before being requested. */
+                module = this.getModule(name);
+                if (typeof module.factory !== 'undefined') {
+                    return;
+                }
+            } else {
                 delete this.waiting[name];
-                module.factory = factory;
-                if (module.injected !== Status.ARRIVED) {
-                    for (var i = 0; i < factory.dependencies.length; ++i) {
-                        var moduleId = factory.dependencies[i];
-                        if (moduleId.charAt(0) === '.') {
-                            moduleId = this.resolveRelative(module, moduleId);
-                        }
-                        module.addDependency(this.getModule(moduleId));
+            }
+            module.factory = factory;
+            if (this.timeline !== null) {
+                this.record(module, "arrived");
+            }
+            if (module.injected !== Status.ARRIVED) {
+                for (var i = 0; i < factory.dependencies.length; ++i) {
+                    var moduleId = factory.dependencies[i];
+                    if (moduleId.charAt(0) === '.') {
+                        moduleId = this.resolveRelative(module, moduleId);
                     }
-                    module.injected = Status.ARRIVED;
+                    module.addDependency(this.getModule(moduleId));
                 }
+                module.injected = Status.ARRIVED;
+            }
+            if (module.required) {
                 this.injectDependencies(module);
-                this.checkModules();
+                this.scheduleModule(module);
             }
+            this.checkCycles();
         },
         /**
          * Start the request procedure.
@@ -231,11 +482,69 @@
             var module = this.getModule(uid());
             module.injected = Status.ARRIVED;
             module.factory = factory;
+            if (this.timeline !== null) {
+                this.record(module, "arrived");
+            }
             for (var i = 0; i < factory.dependencies.length; ++i) {
                 module.addDependency(this.getModule(factory.dependencies[i]));
             }
-            this.injectDependencies(module);
-            this.checkModules();
+            this.requireModules(module);
+        },
+        /**
+         * Mark the given {@link Module} and its (known) dependencies as required,
+         * injecting the resources of those that are not yet requested.
+         * 
+         * @param {Module} module The required {@link Module}.
+         */
+        requireModules: function (module) {
+            if (!module.required) {
+                module.required = true;
+                this.injectModule(module);
+                this.injectDependencies(module);
+                this.scheduleModule(module);
+            }
+        },
+        /**
+         * Start requesting the given modules and, as far as they are listed in
+         * the manifest, all their (transitive) dependencies at once. This way
+         * the resources are loaded in parallel, rather than one level of
+         * dependencies at a time.
+         * 
+         * @param {String[]} dependencies The requested module identifiers.
+         */
+        prefetch: function (dependencies) {
+            var queue = dependencies.slice(0);
+            var visited = {};
+            while (queue.length > 0) {
+                var moduleId = queue.shift();
+                if (visited.hasOwnProperty(moduleId)) {
+                    continue;
+                }
+                visited[moduleId] = true;
+                this.injectModule(this.getModule(moduleId));
+                queue = queue.concat(this.getManifestEntry(moduleId).dependencies);
+            }
+        },
+        /**
+         * Load a bundle containing the definitions of multiple modules.
+         * Modules requested while the bundle is being loaded are only injected
+         * separately when the bundle did not define them.
+         * 
+         * @param {String} url The URL of the bundle.
+         */
+        loadBundle: function (url) {
+            var loader = this;
+            this.deferred = [];
+            var done = function () {
+                var deferred = loader.deferred;
+                loader.deferred = null;
+                for (var i = 0; i < deferred.length; ++i) {
+                    if (deferred[i].injected !== Status.ARRIVED) {
+                        loader.insertModule(deferred[i]);
+                    }
+                }
+            };
+            insertScript(url, done, done);
         },
         /**
          * Inject the resources of the given {@link Module}. This means the module's
@@ -248,17 +557,71 @@
                 return;
             }
             module.injected = Status.REQUESTED;
-            var moduleClass = document.createElementNS(SVGModule.SVG_NS, "script");
+            this.waiting[module.name] = module;
+            if (this.timeline !== null) {
+                this.record(module, "requested");
+            }
+            if (this.deferred !== null) {
+                this.deferred.push(module);
+            } else {
+                this.insertModule(module);
+            }
+        },
+        /**
+         * Add the JavaScript file of the given {@link Module} to the document.
+         * 
+         * @param {Module} module The {@link Module} which resources is to be loaded.
+         */
+        insertModule: function (module) {
             var moduleUrl = this.moduleBase + module.file;
-            moduleClass.setAttributeNS(SVGModule.XLINK_NS, "href", moduleUrl);
-            moduleClass.onerror = function () {
+            var failed = function () {
                 var error = new Error("Error while loading " + moduleUrl);
                 error.name = "ModuleError";
                 onerror(error);
             };
-            this.waiting[module.name] = module;
-            var scripts = document.getElementsByTagName("script");
-            scripts[0].parentNode.insertBefore(moduleClass, scripts[scripts.length - 1].nextSibling);
+            var version = this.getManifestEntry(module.moduleId).version;
+            module.source = "network";
+            if (this.cache === null || typeof version === 'undefined') {
+                insertScript(moduleUrl, null, failed);
+                return;
+            }
+            var source = this.cache.get(module.moduleId, version);
+            if (source !== null) {
+                module.source = "cache";
+                evaluateScript(moduleUrl, source);
+                return;
+            }
+            var cache = this.cache;
+            var request = new XMLHttpRequest();
+            request.open("GET", moduleUrl, true);
+            request.onload = function () {
+                if (request.status >= 200 && request.status < 300) {
+                    cache.put(module.moduleId, version, request.responseText);
+                    evaluateScript(moduleUrl, request.responseText);
+                } else {
+                    failed();
+                }
+            };
+            request.onerror = failed;
+            request.send();
+        },
+        /**
+         * Get the manifest entry of the given module. The manifest lists the
+         * dependencies of a module, either as an array of module identifiers
+         * or as an object also holding the module version.
+         * 
+         * @param {String} moduleId The module identifier.
+         * @returns {Object} The module's dependencies and version (if any).
+         */
+        getManifestEntry: function (moduleId) {
+            var entry = this.manifest.hasOwnProperty(moduleId) ? this.manifest[moduleId] : [];
+            if (Object.prototype.toString.call(entry) === '[object Array]') {
+                return {dependencies: entry};
+            }
+            return {
+                dependencies: entry.dependencies || [],
+                version: typeof entry.version === 'undefined' ? undefined : String(entry.version)
+            };
         },
         /**
          * Get a {@link Module} from the store, or create one if it does not exists.
@@ -275,61 +638,227 @@
             return module;
         },
         /**
-         * Inject the resources of the dependencies of the given module.
+         * Require and inject the resources of the dependencies of the given module.
          * 
-         * @see ModuleLoader#injectModule
+         * @see ModuleLoader#requireModules
          * @param {Module} module The module to inject the dependencies for.
          */
         injectDependencies: function (module) {
             for (var i = 0; i < module.dependencies.length; ++i) {
-                this.injectModule(module.dependencies[i]);
+                this.requireModules(module.dependencies[i]);
+            }
+        },
+        /**
+         * Schedule the execution of the given required module once its
+         * definition has arrived. The module is queued for execution as soon
+         * as all its dependencies are executed. Otherwise it is checked for
+         * circular dependencies once the loader is idle, see
+         * {@link ModuleLoader#checkCycles}.
+         * 
+         * @param {Module} module The module to be scheduled.
+         */
+        scheduleModule: function (module) {
+            if (typeof module.factory === 'undefined' ||
+                    typeof module.pending !== 'undefined') {
+                return;
+            }
+            module.pending = 0;
+            for (var i = 0; i < module.dependencies.length; ++i) {
+                var dependency = module.dependencies[i];
+                if (dependency.executed !== Process.EXECUTED) {
+                    module.pending++;
+                    dependency.dependents.push(module);
+                }
+            }
+            if (module.pending === 0) {
+                this.ready.push(module);
+                this.executeModules();
+            } else {
+                this.blocked.push(module);
+                this.checkCycles();
+            }
+        },
+        /**
+         * Report the circular dependencies of the blocked modules, since those
+         * can never be executed. This is only done when the loader is idle: no
+         * module resources are being loaded, so all dependencies have arrived.
+         * Every module is checked once, starting with the last blocked module,
+         * so the total cost is linear in the number of dependencies.
+         */
+        checkCycles: function () {
+            if (this.blocked.length === 0 || this.deferred !== null) {
+                return;
+            }
+            for (var name in this.waiting) {
+                if (this.waiting.hasOwnProperty(name)) {
+                    return;
+                }
+            }
+            var blocked = this.blocked;
+            this.blocked = [];
+            for (var i = blocked.length - 1; i >= 0; --i) {
+                var cycle = this.findCycle(blocked[i]);
+                if (cycle !== null) {
+                    var error = new Error("Circular dependency: " + cycle.join(" -> "));
+                    error.name = "ModuleError";
+                    onerror(error);
+                }
             }
         },
         /**
-         * Execute the definition of the given module. First the definition of
-         * the dependencies is executed before the given module.
+         * Execute the modules in the ready queue. Modules that become ready
+         * while doing so are executed too.
+         */
+        executeModules: function () {
+            if (this.executing) {
+                return;
+            }
+            this.executing = true;
+            while (this.ready.length > 0) {
+                try {
+                    this.executeModule(this.ready.shift());
+                } catch (e) {
+                    onerror(e);
+                }
+            }
+            this.executing = false;
+        },
+        /**
+         * Execute the definition of the given module. The definitions of its
+         * dependencies must be executed before. Afterwards only the modules
+         * depending on the given module are checked for being ready.
          * 
          * @param {Module} module The module to be defined.
          */
         executeModule: function (module) {
-            if (module.executed === Process.EXECUTING) {
-                return null;
+            module.executed = Process.EXECUTING;
+            if (this.timeline !== null) {
+                this.record(module, "started");
             }
-            if (typeof module.executed === 'undefined') {
-                if (typeof module.factory === 'undefined') {
-                    return null;
+            var args = [];
+            for (var i = 0; i < module.dependencies.length; ++i) {
+                args.push(module.dependencies[i].exports);
+            }
+            module.exports = module.factory.callback.apply(window, args);
+            module.executed = Process.EXECUTED;
+            this.finished = now();
+            if (this.timeline !== null) {
+                this.record(module, "finished");
+            }
+            if (REQUIRE_ID.test(module.moduleId)) {
+                delete this.modules[module.moduleId];
+            }
+            var dependents = module.dependents;
+            module.dependents = [];
+            for (var i = 0; i < dependents.length; ++i) {
+                if (--dependents[i].pending === 0) {
+                    this.ready.push(dependents[i]);
                 }
-                module.executed = Process.EXECUTING;
-                var args = [];
-                for (var i = 0; i < module.dependencies.length; ++i) {
-                    var def = this.executeModule(module.dependencies[i]);
-                    if (def === null) {
-                        delete module.executed;
-                        return null;
+            }
+        },
+        /**
+         * Find a path of dependencies, not yet executed, leading from the given
+         * module to a module on the path, skipping modules that were checked
+         * before. All modules reached are marked as checked.
+         * 
+         * @param {Module} module The module to start from.
+         * @returns {String[]} The module identifiers on the cycle, starting and
+         *          ending with the same module, or null when there is none.
+         */
+        findCycle: function (module) {
+            var path = [];
+            var onPath = {};
+            var search = function (current) {
+                current.checked = true;
+                path.push(current);
+                onPath[current.moduleId] = true;
+                for (var i = 0; i < current.dependencies.length; ++i) {
+                    var dependency = current.dependencies[i];
+                    if (dependency.executed === Process.EXECUTED) {
+                        continue;
+                    }
+                    if (onPath.hasOwnProperty(dependency.moduleId)) {
+                        path = path.slice(path.indexOf(dependency));
+                        path.push(dependency);
+                        return true;
+                    }
+                    if (!dependency.checked && search(dependency)) {
+                        return true;
                     }
-                    args.push(def);
                 }
-                module.exports = module.factory.callback.apply(window, args);
-                module.executed = Process.EXECUTED;
-                if (REQUIRE_ID.test(module.moduleId)) {
-                    delete this.modules[module.moduleId];
+                delete onPath[path.pop().moduleId];
+                return false;
+            };
+            if (module.checked || !search(module)) {
+                return null;
+            }
+            var cycle = [];
+            for (var i = 0; i < path.length; ++i) {
+                cycle.push(path[i].moduleId);
+            }
+            return cycle;
+        },
+        /**
+         * Record the time the given module reaches the given phase. This also
+         * adds a performance mark, and a performance measure when the module
+         * arrived (measured from the request) or finished executing (measured
+         * from the start).
+         * 
+         * @param {Module} module The module.
+         * @param {String} phase One of 'requested', 'arrived', 'started' or 'finished'.
+         */
+        record: function (module, phase) {
+            if (typeof module.timing === 'undefined') {
+                module.timing = {};
+                this.timeline.push(module);
+            }
+            if (typeof module.timing[phase] !== 'undefined') {
+                return;
+            }
+            module.timing[phase] = now();
+            var performance = window.performance;
+            if (performance && typeof performance.mark === 'function') {
+                var prefix = "svgplot:" + module.moduleId + ":";
+                performance.mark(prefix + phase);
+                if (phase === "arrived" && typeof module.timing.requested !== 'undefined') {
+                    performance.measure(prefix + "load", prefix + "requested", prefix + phase);
+                } else if (phase === "finished") {
+                    performance.measure(prefix + "execute", prefix + "started", prefix + phase);
                 }
             }
-            return module.exports;
         },
         /**
-         * Check if requested modules need and can be executed.
+         * Determine the chain of modules that determined the time the last
+         * module finished executing. Starting with that module, each next
+         * module in the chain is the dependency that finished executing last,
+         * as long as it finished after the module depending on it arrived.
+         * 
+         * @returns {String[]} The module identifiers on the critical path, in
+         *          the order they finished executing.
          */
-        checkModules: function () {
-            for (var moduleId in this.modules) {
-                if (this.modules.hasOwnProperty(moduleId)) {
-                    try {
-                        this.executeModule(this.modules[moduleId]);
-                    } catch (e) {
-                        onerror(e);
+        criticalPath: function () {
+            var module = null;
+            for (var i = 0; i < this.timeline.length; i++) {
+                var timing = this.timeline[i].timing;
+                if (typeof timing.finished !== 'undefined' &&
+                        (module === null || timing.finished > module.timing.finished)) {
+                    module = this.timeline[i];
+                }
+            }
+            var path = [];
+            while (module !== null) {
+                path.unshift(module.moduleId);
+                var next = null;
+                for (var i = 0; i < module.dependencies.length; i++) {
+                    var timing = module.dependencies[i].timing;
+                    if (typeof timing !== 'undefined' && timing.finished > module.timing.arrived &&
+                            (next === null || timing.finished > next.timing.finished)) {
+                        next = module.dependencies[i];
                     }
                 }
+                module = next;
             }
+            return path;
         },
         /**
          * This method resolves a relative identifier to an absolute identifier.
@@ -399,6 +928,87 @@
         return "require*_" + _uid++;
     }
 
+    /**
+     * Key of the index in the local storage used by the {@link ModuleCache}.
+     * 
+     * @constant
+     * @type String
+     */
+    var CACHE_INDEX = "svgplot:index";
+
+    /**
+     * Prefix of the keys of the module sources in the local storage used by
+     * the {@link ModuleCache}, distinct from {@link CACHE_INDEX}.
+     * 
+     * @constant
+     * @type String
+     */
+    var CACHE_PREFIX = "svgplot:module:";
+
+    /**
+     * Prefix of the keys in the local storage used by earlier versions of
+     * the {@link ModuleCache}, whose entries are removed.
+     * 
+     * @constant
+     * @type String
+     */
+    var LEGACY_PREFIX = "svgplot:";
+
+    /**
+     * The default capacity (in characters) of the {@link ModuleCache}.
+     * 
+     * @constant
+     * @type Number
+     */
+    var CACHE_CAPACITY = 1048576;
+
+    /**
+     * Returns the current time in milliseconds.
+     * 
+     * @static
+     * @returns {Number} The current (high resolution) time.
+     */
+    function now() {
+        if (window.performance && typeof window.performance.now === 'function') {
+            return window.performance.now();
+        }
+        return new Date().getTime();
+    }
+
+    /**
+     * Evaluate the given script source in the global scope.
+     * 
+     * @static
+     * @param {String} url The URL the source was loaded from.
+     * @param {String} source The script source.
+     */
+    function evaluateScript(url, source) {
+        try {
+            (0, eval)(source + "\n//# sourceURL=" + url);
+        } catch (e) {
+            onerror(e);
+        }
+    }
+
+    /**
+     * Add a script element with the given URL to the document.
+     * 
+     * @static
+     * @param {String} url The URL of the script.
+     * @param {Function} onload The load handler, or null.
+     * @param {Function} onerror The error handler.
+     */
+    function insertScript(url, onload, onerror) {
+        var script = document.createElementNS(SVGModule.SVG_NS, "script");
+        script.setAttributeNS(SVGModule.XLINK_NS, "href", url);
+        if (onload !== null) {
+            script.onload = onload;
+        }
+        script.onerror = onerror;
+        var scripts = document.getElementsByTagName("script");
+        scripts[0].parentNode.insertBefore(script, scripts[scripts.length - 1].nextSibling);
+    }
+
     /**
      * Reference to the singleton instance.
      * 
@@ -438,6 +1048,9 @@
          * @param {function(...[Object])} callback Callback method.
          */
         require: function (dependencies, callback) {
+            if (Object.prototype.toString.call(dependencies) === '[object Array]') {
+                LOADER.prefetch(dependencies);
+            }
             domReady(function () {
                 LOADER.requireModule(new ModuleFactory(dependencies, callback));
             });
@@ -452,9 +1065,102 @@
          */
         define: function (name, dependencies, callback) {
             LOADER.defineModule(name, new ModuleFactory(dependencies, callback));
+        },
+        /**
+         * This method declares the dependencies of modules in advance. When a
+         * module is requested, all its (transitive) dependencies listed in the
+         * manifest are requested in parallel with it.
+         * The manifest can also be given as JSON in the 'manifest' attribute
+         * of the loader script.
+         * Instead of an array of module identifiers an entry can be an object
+         * holding the 'dependencies' array and the module 'version'. Only
+         * versioned modules are kept in the persistent module cache, enabled
+         * by the 'cache' attribute of the loader script.
+         * 
+         * @param {Object.<String, (String[]|Object)>} manifest Map of module
+         *        identifiers to the module identifiers they depend on.
+         */
+        manifest: function (manifest) {
+            for (var moduleId in manifest) {
+                if (manifest.hasOwnProperty(moduleId)) {
+                    LOADER.manifest[moduleId] = manifest[moduleId];
+                }
+            }
+        },
+        /**
+         * Returns the statistics of the persistent module cache. Besides the
+         * cache hits, misses, stored and evicted modules and the total size,
+         * this holds the time (in milliseconds) from loading the loader until
+         * the last module was executed. This way cold and warm starts can
+         * be compared.
+         * 
+         * @returns {Object} The cache statistics, or null when caching is disabled.
+         */
+        cacheStatistics: function () {
+            if (LOADER.cache === null) {
+                return null;
+            }
+            var statistics = {elapsed: LOADER.finished - LOADER.started};
+            for (var key in LOADER.cache.statistics) {
+                if (LOADER.cache.statistics.hasOwnProperty(key)) {
+                    statistics[key] = LOADER.cache.statistics[key];
+                }
+            }
+            return statistics;
+        },
+        /**
+         * Returns the loader statistics. These are only recorded when the
+         * 'stats' attribute of the loader script is set to 'true'.
+         * For each module the time (in milliseconds, relative to the page
+         * load) it was requested, arrived, started and finished executing is
+         * given, together with how it was loaded and its dependencies.
+         * The critical path lists the chain of modules that determined the
+         * time the last module finished executing.
+         * 
+         * @returns {Object} The loader statistics, or null when disabled.
+         */
+        stats: function () {
+            if (LOADER.timeline === null) {
+                return null;
+            }
+            var modules = [];
+            for (var i = 0; i < LOADER.timeline.length; i++) {
+                var module = LOADER.timeline[i];
+                var dependencies = [];
+                for (var j = 0; j < module.dependencies.length; j++) {
+                    dependencies.push(module.dependencies[j].moduleId);
+                }
+                modules.push({
+                    id: module.moduleId,
+                    source: REQUIRE_ID.test(module.moduleId) ? "require" : (module.source || "bundle"),
+                    dependencies: dependencies,
+                    requested: module.timing.requested,
+                    arrived: module.timing.arrived,
+                    started: module.timing.started,
+                    finished: module.timing.finished
+                });
+            }
+            return {
+                started: LOADER.started,
+                finished: LOADER.finished,
+                modules: modules,
+                criticalPath: LOADER.criticalPath()
+            };
+        },
+        /**
+         * Removes all module sources from the persistent module cache.
+         */
+        clearCache: function () {
+            if (LOADER.cache !== null) {
+                LOADER.cache.clear();
+            }
         }
     };
 
+    onerror = function (error) {
+        alert(error.name + ": " + error.message);
+    };
+
     if (node !== null && node.nodeName.toLowerCase() === "script") {
         var scriptBase = node.getAttributeNS(SVGModule.XLINK_NS, "href");
         if (scriptBase.indexOf("SVGPlotModule.js") > -1) {
@@ -466,13 +1172,36 @@
                 moduleBase += '/';
             }
             LOADER.moduleBase = moduleBase;
+            var manifest = node.getAttribute("manifest");
+            if (manifest !== null) {
+                try {
+                    SVGModule.manifest(JSON.parse(manifest));
+                } catch (e) {
+                    var error = new Error("Invalid manifest: " + e.message);
+                    error.name = "ModuleError";
+                    onerror(error);
+                }
+            }
+            var cache = node.getAttribute("cache");
+            if (cache !== null && cache !== "false") {
+                var capacity = 0 | Number(cache);
+                try {
+                    LOADER.cache = new ModuleCache(capacity > 0 ? capacity : CACHE_CAPACITY);
+                } catch (e) {
+                    /* No local storage available, so no caching. */
+                    LOADER.cache = null;
+                }
+            }
+            if (node.getAttribute("stats") === "true") {
+                LOADER.timeline = [];
+            }
+            var bundle = node.getAttribute("bundle");
+            if (bundle !== null) {
+                LOADER.loadBundle(bundle);
+            }
         }
     }
 
-    onerror = function (error) {
-        alert(error.name + ": " + error.message);
-    };
-
     /**
      * Indicates whether or not the page is loaded.
      * 
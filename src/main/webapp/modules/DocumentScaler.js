@@ -46,6 +46,170 @@ SVGModule.define(
                 return doc;
             }
 
+            /**
+             * Determine the view-box fitting the given element.
+             * 
+             * @param {SVGElement} element The reference element.
+             * @returns {Number[]} The x, y, width and height of the view-box.
+             */
+            function viewBox(element) {
+                var box = element.getBBox();
+                var x = Math.floor(box.x);
+                var y = Math.floor(box.y);
+                return [x, y, box.width + 2 * (box.x - x), box.height + 2 * (box.y - y)];
+            }
+
+            /**
+             * Determine the stroke width of a view-box shown in the given
+             * client rectangle.
+             * 
+             * @param {Number[]} box The view-box as returned by {@link viewBox}.
+             * @param {ClientRect} clientRect The client rectangle of the document.
+             * @returns {Number} The stroke width.
+             */
+            function strokeWidth(box, clientRect) {
+                return 2 * Math.max(box[2] / clientRect.width, box[3] / clientRect.height);
+            }
+
+            /**
+             * Dispatch a 'documentscaled' event on the given SVGDocument, so
+             * plots depending on the scale can be updated.
+             * 
+             * @param {SVGDocument} doc The scaled document.
+             */
+            function notify(doc) {
+                var event = document.createEvent("Event");
+                event.initEvent("documentscaled", true, false);
+                doc.dispatchEvent(event);
+            }
+
+            /**
+             * Measure the scale of the SVGDocument the given element belongs to.
+             * This only reads from the document, so multiple measurements can be
+             * made without forcing a layout in between. Unlike
+             * {@link DocumentScaler#scaleTo} the client rectangle is read
+             * before the new view-box is written.
+             * 
+             * @param {SVGElement} element The reference element.
+             * @returns {Object} The document, its view-box and stroke width.
+             */
+            function measure(element) {
+                var doc = findDocument(element);
+                var box = viewBox(element);
+                return {
+                    doc: doc,
+                    viewBox: box.join(' '),
+                    strokeWidth: strokeWidth(box, doc.getBoundingClientRect())
+                };
+            }
+
+            /**
+             * Apply a measurement to its SVGDocument. This only writes to the
+             * document, and notifies it afterwards, see {@link notify}.
+             * 
+             * @param {Object} scale The measurement as returned by {@link measure}.
+             */
+            function apply(scale) {
+                scale.doc.setAttribute("viewBox", scale.viewBox);
+                scale.doc.setAttribute("stroke-width", scale.strokeWidth);
+                notify(scale.doc);
+            }
+
+            /**
+             * The observed reference elements and their callbacks.
+             * 
+             * @type Object[]
+             */
+            var observed = [];
+
+            /**
+             * The ResizeObserver shared by all observed elements, or null when
+             * nothing is observed.
+             * 
+             * @type ResizeObserver
+             */
+            var observer = null;
+
+            /**
+             * The pending animation frame request, or 0 when no rescale is scheduled.
+             * 
+             * @type Number
+             */
+            var frame = 0;
+
+            /**
+             * Request an animation frame, falling back to a timer.
+             * 
+             * @param {Function} callback The callback function.
+             * @returns {Number} The request identifier.
+             */
+            function requestFrame(callback) {
+                if (typeof window.requestAnimationFrame === 'function') {
+                    return window.requestAnimationFrame(callback);
+                }
+                return window.setTimeout(callback, 16);
+            }
+
+            /**
+             * Cancel a request made by {@link requestFrame}.
+             * 
+             * @param {Number} id The request identifier.
+             */
+            function cancelFrame(id) {
+                if (typeof window.cancelAnimationFrame === 'function') {
+                    window.cancelAnimationFrame(id);
+                } else {
+                    window.clearTimeout(id);
+                }
+            }
+
+            /**
+             * Schedule a rescale of all observed elements on the next animation
+             * frame. Multiple resize notifications within one frame result in
+             * a single rescale.
+             */
+            function schedule() {
+                if (frame === 0) {
+                    frame = requestFrame(rescale);
+                }
+            }
+
+            /**
+             * Rescale all observed elements. All documents are measured first
+             * and then written, so the layout is computed only once.
+             */
+            function rescale() {
+                frame = 0;
+                var entries = observed.slice(0);
+                var scales = [];
+                for (var i = 0; i < entries.length; i++) {
+                    scales.push(measure(entries[i].element));
+                }
+                for (var j = 0; j < entries.length; j++) {
+                    apply(scales[j]);
+                }
+                for (var k = 0; k < entries.length; k++) {
+                    if (entries[k].callback) {
+                        entries[k].callback(entries[k].element);
+                    }
+                }
+            }
+
+            /**
+             * Find the index of the given element in the observed elements.
+             * 
+             * @param {SVGElement} element The reference element.
+             * @returns {Number} The index, or -1 when not observed.
+             */
+            function indexOf(element) {
+                for (var i = 0; i < observed.length; i++) {
+                    if (observed[i].element === element) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+
             /**
              * This interface can be used to scale the entire SVGDocument
              * to the dimensions of an SVGElement.
@@ -64,18 +228,75 @@ SVGModule.define(
                  */
                 scaleTo: function (element) {
                     var doc = findDocument(element);
-                    var box = element.getBBox();
-                    var viewport = doc.createSVGRect();
-                    viewport.x = Math.floor(box.x);
-                    viewport.y = Math.floor(box.y);
-                    viewport.width = box.width + 2 * (box.x - viewport.x);
-                    viewport.height = box.height + 2 * (box.y - viewport.y);
-                    doc.setAttribute("viewBox", [viewport.x, viewport.y,
-                        viewport.width, viewport.height].join(' '));
+                    var box = viewBox(element);
+                    doc.setAttribute("viewBox", box.join(' '));
                     var clientRect = doc.getBoundingClientRect();
-                    doc.setAttribute("stroke-width",
-                            2 * Math.max(viewport.width / clientRect.width,
-                                    viewport.height / clientRect.height));
+                    doc.setAttribute("stroke-width", strokeWidth(box, clientRect));
+                    notify(doc);
+                },
+                /**
+                 * This method will keep the SVGDocument scaled to the dimensions
+                 * of the given SVGElement. The document is rescaled whenever its
+                 * size or the size of the element changes, at most once per
+                 * animation frame.
+                 * 
+                 * @param {SVGElement} element The reference element used to scale
+                 *                          the entire document.
+                 * @param {function(SVGElement)} callback Optional callback method,
+                 *        invoked after each rescale.
+                 */
+                observe: function (element, callback) {
+                    if (indexOf(element) !== -1) {
+                        return;
+                    }
+                    var doc = findDocument(element);
+                    observed.push({element: element, doc: doc, callback: callback});
+                    if (typeof window.ResizeObserver === 'function') {
+                        if (observer === null) {
+                            observer = new window.ResizeObserver(schedule);
+                        }
+                        observer.observe(doc);
+                        observer.observe(element);
+                    } else if (observed.length === 1) {
+                        window.addEventListener("resize", schedule, false);
+                    }
+                    schedule();
+                },
+                /**
+                 * This method stops the scaling of the SVGDocument to the given
+                 * SVGElement. When no element is observed anymore all resources
+                 * are released.
+                 * 
+                 * @param {SVGElement} element The reference element.
+                 */
+                unobserve: function (element) {
+                    var index = indexOf(element);
+                    if (index === -1) {
+                        return;
+                    }
+                    var entry = observed.splice(index, 1)[0];
+                    if (observer !== null) {
+                        observer.unobserve(element);
+                        var shared = false;
+                        for (var i = 0; i < observed.length; i++) {
+                            shared = shared || observed[i].doc === entry.doc;
+                        }
+                        if (!shared) {
+                            observer.unobserve(entry.doc);
+                        }
+                    }
+                    if (observed.length === 0) {
+                        if (observer !== null) {
+                            observer.disconnect();
+                            observer = null;
+                        } else {
+                            window.removeEventListener("resize", schedule, false);
+                        }
+                        if (frame !== 0) {
+                            cancelFrame(frame);
+                            frame = 0;
+                        }
+                    }
                 }
             };
         }
@@ -0,0 +1,379 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+
+SVGModule.define(
+        "ExpressionCompiler",
+        ["MathematicalEngine"],
+        function (MathematicalEngine) {
+            /**
+             * The WebAssembly value types.
+             * 
+             * @constant
+             * @type Object
+             */
+            var I32 = 0x7f, F64 = 0x7c;
+
+            /**
+             * The local variable indices of the 'evaluate' function: the
+             * parameters (input, output, count), the sample index, the
+             * variable value and the temporaries.
+             * 
+             * @constant
+             * @type Object
+             */
+            var INPUT = 0, OUTPUT = 1, COUNT = 2, INDEX = 3, VALUE = 4, T0 = 5, T1 = 6, T2 = 7;
+
+            /**
+             * The in-module implementations of the MathematicalEngine
+             * functions. Each holds the number of parameters and emits the
+             * instructions replacing its parameters on the stack by its result.
+             * The functions not listed are imported from the MathematicalEngine,
+             * except for those in {@link UNSUPPORTED}.
+             * 
+             * @constant
+             * @type Object
+             */
+            var BUILTINS = {
+                abs: {count: 1, code: [0x99]},
+                add: {count: 2, code: [0xa0]},
+                and: {count: 2, code: [0x21, T0, 0x44].concat(f64(0), [0x62, 0x20, T0, 0x44], f64(0), [0x62, 0x71, 0xb8])},
+                ceil: {count: 1, code: [0x9b]},
+                divide: {count: 2, code: [0xa3]},
+                e: {count: 0, code: [0x44].concat(f64(Math.E))},
+                false: {count: 0, code: [0x44].concat(f64(0))},
+                floor: {count: 1, code: [0x9c]},
+                greater: {count: 2, code: [0x64, 0xb8]},
+                ifthenelse: {count: 3, code: [0x21, T2, 0x21, T1, 0x21, T0, 0x20, T1, 0x20, T2, 0x20, T0, 0x44].concat(f64(0), [0x62, 0x1b])},
+                less: {count: 2, code: [0x63, 0xb8]},
+                multiply: {count: 2, code: [0xa2]},
+                neg: {count: 1, code: [0x9a]},
+                not: {count: 1, code: [0x44].concat(f64(0), [0x61, 0xb8])},
+                notgreater: {count: 2, code: [0x64, 0x45, 0xb8]},
+                notless: {count: 2, code: [0x63, 0x45, 0xb8]},
+                or: {count: 2, code: [0x21, T0, 0x44].concat(f64(0), [0x62, 0x20, T0, 0x44], f64(0), [0x62, 0x72, 0xb8])},
+                pi: {count: 0, code: [0x44].concat(f64(Math.PI))},
+                sqrt: {count: 1, code: [0x9f]},
+                subtract: {count: 2, code: [0xa1]},
+                true: {count: 0, code: [0x44].concat(f64(1))}
+            };
+
+            /**
+             * The functions that cannot be compiled: the random functions,
+             * of which the sequence would differ from the JavaScript evaluation,
+             * and the equality functions, which compare the literal Number
+             * objects by identity in the JavaScript evaluation.
+             * 
+             * @constant
+             * @type String[]
+             */
+            var UNSUPPORTED = ["rand", "random", "rnd", "equal", "notequal"];
+
+            /**
+             * Encodes a number as little-endian IEEE 754 double.
+             * 
+             * @param {Number} value The number.
+             * @returns {Integer[]} The eight bytes.
+             */
+            function f64(value) {
+                var view = new DataView(new ArrayBuffer(8));
+                view.setFloat64(0, value, true);
+                var bytes = [];
+                for (var i = 0; i < 8; i++) {
+                    bytes.push(view.getUint8(i));
+                }
+                return bytes;
+            }
+
+            /**
+             * Encodes an unsigned integer as LEB128.
+             * 
+             * @param {Integer} value The integer.
+             * @returns {Integer[]} The bytes.
+             */
+            function uleb(value) {
+                var bytes = [];
+                do {
+                    var b = value & 0x7f;
+                    value >>>= 7;
+                    bytes.push(value === 0 ? b : b | 0x80);
+                } while (value !== 0);
+                return bytes;
+            }
+
+            /**
+             * Encodes a string as WebAssembly name.
+             * 
+             * @param {String} name The (ASCII) name.
+             * @returns {Integer[]} The bytes.
+             */
+            function name(name) {
+                var bytes = uleb(name.length);
+                for (var i = 0; i < name.length; i++) {
+                    bytes.push(name.charCodeAt(i));
+                }
+                return bytes;
+            }
+
+            /**
+             * Encodes a vector of encoded items.
+             * 
+             * @param {Integer[][]} items The encoded items.
+             * @returns {Integer[]} The bytes.
+             */
+            function vector(items) {
+                var bytes = uleb(items.length);
+                for (var i = 0; i < items.length; i++) {
+                    bytes = bytes.concat(items[i]);
+                }
+                return bytes;
+            }
+
+            /**
+             * Encodes a module section.
+             * 
+             * @param {Integer} id The section identifier.
+             * @param {Integer[]} content The section content.
+             * @returns {Integer[]} The bytes.
+             */
+            function section(id, content) {
+                return [id].concat(uleb(content.length), content);
+            }
+
+            /**
+             * Encodes a function type with f64 parameters and result.
+             * 
+             * @param {Integer} count The number of parameters.
+             * @returns {Integer[]} The bytes.
+             */
+            function mathType(count) {
+                var params = [];
+                for (var i = 0; i < count; i++) {
+                    params.push([F64]);
+                }
+                return [0x60].concat(vector(params), vector([[F64]]));
+            }
+
+            /**
+             * Translates the symbolic code of a parse tree into the body of
+             * the sample loop. The WebAssembly stack mirrors the action list
+             * evaluation: the result register is the top of the stack, below
+             * which are the moved values.
+             * 
+             * @param {Object} code The symbolic code of the parse tree.
+             * @param {String} variable The variable name (without '#').
+             * @param {Object[]} imports Receives the imported functions.
+             * @returns {Integer[]} The instructions, or null when not supported.
+             */
+            function translate(code, variable, imports) {
+                var body = [0x44].concat(f64(0));
+                var depth = 1;
+                var instruction = /([LMVF])(\d*)(?::(\d+))?/;
+                for (var i = 0; i < code.code.length; i++) {
+                    var match = instruction.exec(code.code[i]);
+                    switch (match[1]) {
+                        case 'L':
+                            body = body.concat([0x1a, 0x44], f64(Number(code.literals[Number(match[2])])));
+                            break;
+                        case 'M':
+                            body.push(0x22, T0, 0x20, T0);
+                            depth++;
+                            break;
+                        case 'V':
+                            if (code.variables[Number(match[2])] !== variable) {
+                                return null;
+                            }
+                            body.push(0x1a, 0x20, VALUE);
+                            break;
+                        case 'F':
+                            var func = code.functions[Number(match[2])];
+                            var count = Number(match[3]);
+                            if (UNSUPPORTED.indexOf(func) !== -1 || depth < count) {
+                                return null;
+                            }
+                            if (count === 0) {
+                                body.push(0x1a);
+                            }
+                            if (func === "max" || func === "min") {
+                                if (count === 0) {
+                                    body = body.concat([0x44], f64(func === "max" ? -Infinity : Infinity));
+                                }
+                                for (var j = 1; j < count; j++) {
+                                    body.push(func === "max" ? 0xa5 : 0xa4);
+                                }
+                            } else if (BUILTINS.hasOwnProperty(func) && BUILTINS[func].count === count) {
+                                body = body.concat(BUILTINS[func].code);
+                            } else {
+                                var index = -1;
+                                for (var k = 0; k < imports.length; k++) {
+                                    if (imports[k].name === func && imports[k].count === count) {
+                                        index = k;
+                                    }
+                                }
+                                if (index === -1) {
+                                    index = imports.push({name: func, count: count}) - 1;
+                                }
+                                body = body.concat([0x10], uleb(index));
+                            }
+                            depth -= count === 0 ? 0 : count - 1;
+                            break;
+                    }
+                }
+                // Keep the result and drop the remaining moved values.
+                body.push(0x21, T0);
+                for (var d = 1; d < depth; d++) {
+                    body.push(0x1a);
+                }
+                body.push(0x20, T0);
+                return body;
+            }
+
+            /**
+             * Encodes the module holding the 'evaluate' function, which
+             * evaluates the parse tree for 'count' variable values at 'input'
+             * and stores the results at 'output'.
+             * 
+             * @param {Integer[]} body The translated parse tree.
+             * @param {Object[]} imports The imported functions.
+             * @returns {Uint8Array} The module bytes.
+             */
+            function encode(body, imports) {
+                var types = [[0x60].concat(vector([[I32], [I32], [I32]]), vector([]))];
+                var importEntries = [];
+                for (var i = 0; i < imports.length; i++) {
+                    types.push(mathType(imports[i].count));
+                    importEntries.push(name("env").concat(name("f" + i), [0x00], uleb(i + 1)));
+                }
+                var address = function (base) {
+                    return [0x20, base, 0x20, INDEX, 0x41, 3, 0x74, 0x6a];
+                };
+                var code = [0x02, 0x40, 0x03, 0x40,
+                    0x20, INDEX, 0x20, COUNT, 0x4f, 0x0d, 1]
+                        .concat(address(INPUT), [0x2b, 3, 0, 0x21, VALUE])
+                        .concat(address(OUTPUT), body, [0x39, 3, 0])
+                        .concat([0x20, INDEX, 0x41, 1, 0x6a, 0x21, INDEX, 0x0c, 0, 0x0b, 0x0b, 0x0b]);
+                var func = vector([[1, I32], [4, F64]]).concat(code);
+                var bytes = [0x00, 0x61, 0x73, 0x6d, 0x01, 0x00, 0x00, 0x00]
+                        .concat(section(1, vector(types)))
+                        .concat(section(2, vector(importEntries)))
+                        .concat(section(3, vector([[0]])))
+                        .concat(section(5, vector([[0x00, 1]])))
+                        .concat(section(7, vector([
+                            name("evaluate").concat([0x00], uleb(imports.length)),
+                            name("memory").concat([0x02, 0])])))
+                        .concat(section(10, vector([uleb(func.length).concat(func)])));
+                return new Uint8Array(bytes);
+            }
+
+            /**
+             * @class A parse tree compiled into a WebAssembly module.
+             * @name CompiledExpression
+             * @param {WebAssembly.Instance} instance The module instance.
+             * @property {Function} run The exported 'evaluate' function.
+             * @property {WebAssembly.Memory} memory The exported memory.
+             */
+            function CompiledExpression(instance) {
+                this.run = instance.exports.evaluate;
+                this.memory = instance.exports.memory;
+            }
+
+            /**
+             * @lends CompiledExpression
+             */
+            CompiledExpression.prototype = {
+                /**
+                 * Evaluates the parse tree for each of the variable values.
+                 * 
+                 * @param {Float64Array} values The variable values.
+                 * @returns {Float64Array} The results.
+                 */
+                evaluate: function (values) {
+                    var size = 16 * values.length;
+                    var pages = Math.ceil(size / 65536) - this.memory.buffer.byteLength / 65536;
+                    if (pages > 0) {
+                        this.memory.grow(pages);
+                    }
+                    new Float64Array(this.memory.buffer, 0, values.length).set(values);
+                    this.run(0, 8 * values.length, values.length);
+                    return new Float64Array(this.memory.buffer, 8 * values.length, values.length).slice(0);
+                }
+            };
+
+            /**
+             * The ExpressionCompiler compiles parse trees into WebAssembly
+             * modules that evaluate whole arrays of samples. The results are
+             * identical to those of the parse tree's visit method: the
+             * arithmetic is done in the module and the other functions call
+             * the MathematicalEngine.
+             * 
+             * @namespace ExpressionCompiler
+             */
+            return {
+                /**
+                 * Indicates whether or not a WebAssembly runtime is available.
+                 * 
+                 * @returns {Boolean} Whether or not parse trees can be compiled.
+                 */
+                supported: function () {
+                    return typeof WebAssembly === 'object' && typeof WebAssembly.Instance === 'function';
+                },
+                /**
+                 * Compiles the given parse tree for the given variable.
+                 * 
+                 * @param {Visitor} tree The parse tree.
+                 * @param {String} variable The variable name (without '#').
+                 * @returns {CompiledExpression} The compiled parse tree, or null
+                 *          when there is no WebAssembly runtime, or the parse tree
+                 *          uses other variables or unsupported functions.
+                 */
+                compile: function (tree, variable) {
+                    if (!this.supported() || typeof tree.Code === 'undefined') {
+                        return null;
+                    }
+                    var imports = [];
+                    var body = translate(tree.Code, variable, imports);
+                    if (body === null) {
+                        return null;
+                    }
+                    var env = {};
+                    for (var i = 0; i < imports.length; i++) {
+                        env["f" + i] = (function (func) {
+                            return function () {
+                                return Number(MathematicalEngine[func].apply(MathematicalEngine, arguments));
+                            };
+                        })(imports[i].name);
+                    }
+                    try {
+                        var module = new WebAssembly.Module(encode(body, imports));
+                        return new CompiledExpression(new WebAssembly.Instance(module, {env: env}));
+                    } catch (e) {
+                        return null;
+                    }
+                }
+            };
+        });
@@ -37,10 +37,19 @@ SVGModule.define(
              *        in an action list.
              * @name Visitor
              * @param {Object[]} actionList The action list holding the 'actions' to visit.
+             * @param {Object} code The symbolic code of the action list.
+             * @param {String} shape The shape of the parse tree's result.
              * @property {Object[]} ActionList The action list holding the 'actions' to visit.
+             * @property {Object} Code The symbolic code of the action list, see {@link Parser}.
+             * @property {String} Shape The shape of the parse tree's result: an
+             *                          empty string when it is constant, the
+             *                          variable name when it is affine in that
+             *                          variable, or null otherwise.
              */
-            function Visitor(actionList) {
+            function Visitor(actionList, code, shape) {
                 this.ActionList = actionList;
+                this.Code = code;
+                this.Shape = shape;
             }
 
             /**
@@ -60,9 +69,196 @@ SVGModule.define(
                         Result = this.ActionList[i].apply(Result, Stack, variables);
                     }
                     return Result;
+                },
+                /**
+                 * Serialises the parse tree into its bytecode form, which
+                 * can be loaded by {@link ExpressionParser#load} without parsing.
+                 * The form is '#bc1;code;literals;variables;functions', where
+                 * the code is the sequence of instructions and the others are
+                 * space separated pools referred to by index.
+                 * 
+                 * @returns {String} The bytecode of this parse tree.
+                 */
+                serialize: function () {
+                    return [BYTECODE_VERSION,
+                        this.Code.code.join(''),
+                        this.Code.literals.join(' '),
+                        this.Code.variables.join(' '),
+                        this.Code.functions.join(' ')].join(';');
+                },
+                /**
+                 * Indicates whether or not the parse tree is affine in the
+                 * given variable, i.e. of the form a * #variable + b. A constant
+                 * parse tree is affine in any variable.
+                 * 
+                 * @param {String} variable The variable name (without '#').
+                 * @returns {Boolean} Whether or not the parse tree is affine.
+                 */
+                isAffine: function (variable) {
+                    return this.Shape === "" || this.Shape === variable;
+                },
+                /**
+                 * Returns the names of the variables the parse tree refers to.
+                 * 
+                 * @returns {String[]} The variable names (without '#').
+                 */
+                variables: function () {
+                    return this.Code.variables.slice(0);
+                },
+                /**
+                 * Creates the family of this parse tree over the given values
+                 * of a parameter, see {@link Family}.
+                 * 
+                 * @param {String} parameter The parameter name (without '#').
+                 * @param {Number[]} values The values of the parameter.
+                 * @returns {Family} The family of parse trees.
+                 */
+                family: function (parameter, values) {
+                    return new Family(this, parameter, values);
                 }
             };
 
+            /**
+             * @class This object holds a value for every member of a family,
+             *        see {@link Family}.
+             * @name Members
+             * @param {Object[]} values The values of the members.
+             * @property {Object[]} values The values of the members.
+             */
+            function Members(values) {
+                this.values = values;
+            }
+
+            /**
+             * @class A Family evaluates a parse tree for all values of a
+             *        parameter in a single visit. The actions that do not
+             *        depend on the parameter are hoisted: they are applied
+             *        once, as in {@link Visitor#visit}, and only the
+             *        dependent actions are applied for every member. The
+             *        random functions are always applied for every member.
+             * @name Family
+             * @param {Visitor} visitor The parse tree.
+             * @param {String} parameter The parameter name (without '#').
+             * @param {Number[]} values The values of the parameter.
+             * @property {Visitor} Visitor The parse tree.
+             * @property {Members} Members The values of the parameter.
+             * @property {Object[]} Steps Per action whether or not it is
+             *                            'dependent' on the parameter, and
+             *                            the 'name' and 'count' of the
+             *                            parameters of a function.
+             */
+            function Family(visitor, parameter, values) {
+                this.Visitor = visitor;
+                this.Members = new Members(values);
+                this.Steps = [];
+                var code = visitor.Code;
+                var dependent = false;
+                var stack = [];
+                for (var i = 0; i < code.code.length; i++) {
+                    var match = /([LMVF])(\d*)(?::(\d+))?/.exec(code.code[i]);
+                    var step = {dependent: false, name: null, count: 0};
+                    switch (match[1]) {
+                        case 'L':
+                            dependent = false;
+                            break;
+                        case 'M':
+                            stack.unshift(dependent);
+                            break;
+                        case 'V':
+                            dependent = code.variables[Number(match[2])] === parameter;
+                            step.dependent = dependent;
+                            break;
+                        case 'F':
+                            step.name = code.functions[Number(match[2])];
+                            step.count = Number(match[3]);
+                            dependent = step.count > 0 && dependent;
+                            for (var j = 1; j < step.count; j++) {
+                                dependent = stack.shift() || dependent;
+                            }
+                            dependent = dependent || RANDOM.indexOf(step.name) !== -1;
+                            step.dependent = dependent;
+                            break;
+                    }
+                    this.Steps.push(step);
+                }
+            }
+
+            /**
+             * @lends Family
+             */
+            Family.prototype = {
+                /**
+                 * Visits all the 'actions' of the parse tree for all members.
+                 * 
+                 * @param {Object} variables The variables and their substitution values.
+                 * @returns {Object[]} The results of the members.
+                 */
+                visit: function (variables) {
+                    var actions = this.Visitor.ActionList;
+                    var count = this.Members.values.length;
+                    var Stack = [];
+                    var Result = 0;
+                    for (var i = 0; i < actions.length; i++) {
+                        var step = this.Steps[i];
+                        if (!step.dependent) {
+                            Result = actions[i].apply(Result, Stack, variables);
+                        } else if (step.name === null) {
+                            Result = this.Members;
+                        } else {
+                            var parameters = step.count === 0 ? [] : [Result];
+                            for (var j = 1; j < step.count; j++) {
+                                parameters.unshift(Stack.shift());
+                            }
+                            var values = new Array(count);
+                            for (var m = 0; m < count; m++) {
+                                var args = new Array(parameters.length);
+                                for (var k = 0; k < parameters.length; k++) {
+                                    var parameter = parameters[k];
+                                    args[k] = parameter instanceof Members ? parameter.values[m] : parameter;
+                                }
+                                values[m] = MathematicalEngine[step.name].apply(MathematicalEngine, args);
+                            }
+                            Result = new Members(values);
+                        }
+                    }
+                    if (Result instanceof Members) {
+                        return Result.values;
+                    }
+                    var results = new Array(count);
+                    for (var n = 0; n < count; n++) {
+                        results[n] = Result;
+                    }
+                    return results;
+                }
+            };
+
+            /**
+             * The document-level parameters: variables with a value shared by
+             * all parse trees. Variables passed to {@link Visitor#visit} take
+             * precedence over parameters with the same name.
+             * 
+             * @type Object
+             */
+            var PARAMETERS = {};
+
+            /**
+             * The version tag of the serialised bytecode form.
+             * 
+             * @constant
+             * @type String
+             */
+            var BYTECODE_VERSION = "#bc1";
+
+            /**
+             * The pattern of a single bytecode instruction: the operation
+             * ('L'iteral, 'M'ove, 'V'ariable or 'F'unction), the pool index
+             * and, for functions, the number of parameters.
+             * 
+             * @constant
+             * @type RegExp
+             */
+            var INSTRUCTION = /([LMVF])(\d*)(?::(\d+))?/g;
+
             /**
              * This object represents the character stream that is
              * being parsed.
@@ -89,14 +285,15 @@ SVGModule.define(
                 /**
                  * Read one character from the stream.
                  * 
-                 * @returns {String} The current character of the stream.
+                 * @returns {Integer} The code of the current character of the
+                 *                    stream, or {@link EOF} at the end of the stream.
                  */
                 read: function () {
                     if (this.pos >= this.stream.length) {
                         this.pos = this.stream.length + 1;
-                        return '';
+                        return EOF;
                     }
-                    return this.stream.charAt(this.pos++);
+                    return this.stream.charCodeAt(this.pos++);
                 },
                 /**
                  * Flush the stream.
@@ -130,6 +327,164 @@ SVGModule.define(
                 }
             };
 
+            /**
+             * The character codes of the tokens and the end of the stream.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var EOF = -1, TAB = 9, SPACE = 32, BANG = 33, HASH = 35, LEFT = 40,
+                    RIGHT = 41, PLUS = 43, COMMA = 44, MINUS = 45, DOT = 46,
+                    ZERO = 48, COLON = 58, QUESTION = 63, UPPER_E = 69, CARET = 94,
+                    LOWER_E = 101, DEG = 114;
+
+            /**
+             * The precedences of the operations pending in the {@link Parser}:
+             * the opened parentheses and parameter lists, the if-operator,
+             * the relational operators, the add- subtract- and or-operators,
+             * the multiply- divide- and and-operators, the negate- and
+             * not-operators of a factor, the power-operator and the negate-
+             * and not-operators of a fragment.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var CONTEXT = -1, CONDITION = 0, RELATION = 1, SUM = 2, PRODUCT = 3,
+                    SIGNED_FACTOR = 4, POWER = 5, SIGNED_FRAGMENT = 6;
+
+            /**
+             * The binary operators by the code of their first character. The
+             * and-, or- and equals-operators repeat their first character,
+             * the suffix of the other relational operators selects another
+             * function.
+             * 
+             * @constant
+             * @type Object
+             */
+            var OPERATORS = {
+                42: {precedence: PRODUCT, func: "multiply"}, // '*'
+                47: {precedence: PRODUCT, func: "divide"}, // '/'
+                38: {precedence: PRODUCT, func: "and", repeat: true}, // '&&'
+                43: {precedence: SUM, func: "add"}, // '+'
+                45: {precedence: SUM, func: "subtract"}, // '-'
+                124: {precedence: SUM, func: "or", repeat: true}, // '||'
+                61: {precedence: RELATION, func: "equal", repeat: true}, // '=='
+                60: {precedence: RELATION, func: "less", suffix: {61: "notgreater", 62: "notequal"}}, // '<', '<=', '<>'
+                62: {precedence: RELATION, func: "greater", suffix: {61: "notless"}} // '>', '>='
+            };
+
+            /**
+             * The negate- and not-operators by the code of their character.
+             * 
+             * @constant
+             * @type Object
+             */
+            var NEGNOT = {
+                45: "neg", // '-'
+                33: "not" // '!'
+            };
+
+            /**
+             * The functions that do not return the same value for the same
+             * parameters.
+             * 
+             * @constant
+             * @type String[]
+             */
+            var RANDOM = ["rand", "random", "rnd"];
+
+            /**
+             * Determines the shape of a function's result from the shapes of
+             * its parameters, see {@link Visitor#Shape}. Sums, differences,
+             * scaled, negated and converted (deg/rad) affine values are affine;
+             * functions of constant parameters are constant, except for the
+             * random functions.
+             * 
+             * @param {String} name The function name.
+             * @param {String[]} shapes The shapes of the parameters.
+             * @returns {String} The shape of the result.
+             */
+            function shapeOf(name, shapes) {
+                var variable = "";
+                for (var i = 0; i < shapes.length; i++) {
+                    if (typeof shapes[i] !== 'string' || (shapes[i] !== "" && variable !== "" && shapes[i] !== variable)) {
+                        return null;
+                    } else if (shapes[i] !== "") {
+                        variable = shapes[i];
+                    }
+                }
+                if (RANDOM.indexOf(name) !== -1) {
+                    return null;
+                } else if (variable === "") {
+                    return "";
+                }
+                switch (name) {
+                    case "add":
+                    case "subtract":
+                        return shapes.length === 2 ? variable : null;
+                    case "multiply":
+                        return shapes.length === 2 && (shapes[0] === "" || shapes[1] === "") ? variable : null;
+                    case "divide":
+                        return shapes.length === 2 && shapes[1] === "" ? variable : null;
+                    case "neg":
+                    case "deg":
+                    case "rad":
+                        return shapes.length === 1 ? variable : null;
+                    default:
+                        return null;
+                }
+            }
+
+            /**
+             * Tests for a digit: [0-9].
+             * 
+             * @param {Integer} c The character code.
+             * @returns {Boolean} Whether or not the character is a digit.
+             */
+            function isDigit(c) {
+                return c >= 48 && c <= 57;
+            }
+
+            /**
+             * Tests for a lower case letter: [a-z].
+             * 
+             * @param {Integer} c The character code.
+             * @returns {Boolean} Whether or not the character is a lower case letter.
+             */
+            function isLower(c) {
+                return c >= 97 && c <= 122;
+            }
+
+            /**
+             * Tests for a letter: [a-zA-Z].
+             * 
+             * @param {Integer} c The character code.
+             * @returns {Boolean} Whether or not the character is a letter.
+             */
+            function isLetter(c) {
+                return isLower(c) || (c >= 65 && c <= 90);
+            }
+
+            /**
+             * Tests for a function name character: [a-z0-9_].
+             * 
+             * @param {Integer} c The character code.
+             * @returns {Boolean} Whether or not the character is a function name character.
+             */
+            function isLowerWord(c) {
+                return isLower(c) || isDigit(c) || c === 95;
+            }
+
+            /**
+             * Tests for a variable name character: [a-zA-Z0-9_].
+             * 
+             * @param {Integer} c The character code.
+             * @returns {Boolean} Whether or not the character is a variable name character.
+             */
+            function isWord(c) {
+                return isLetter(c) || isDigit(c) || c === 95;
+            }
+
             /**
              * @class The Parser parses an input stream and converts the recognized
              *        tokens into action nodes for the parse tree.
@@ -137,12 +492,22 @@ SVGModule.define(
              * @param {CharacterStream} input The character stream to be parsed.
              * @property {CharacterStream} Input Reference to the character input stream.
              * @property {Object[]} ActionList The action list holding the 'actions' to visit.
-             * @property {String} Look The character we are looking at.
+             * @property {Integer} Look The code of the character we are looking at.
+             * @property {Object} Code The symbolic code of the action list: the
+             *                         'code' instructions, and the 'literals',
+             *                         'variables' and 'functions' pools.
+             * @property {Object} Indices The index of each operand in its pool.
+             * @property {String} Shape The shape of the result, see {@link Visitor#Shape}.
+             * @property {String[]} Shapes The shapes of the values on the stack.
              */
             function Parser(input) {
                 this.Input = input;
                 this.ActionList = [];
-                this.Look = '';
+                this.Look = EOF;
+                this.Code = {code: [], literals: [], variables: [], functions: []};
+                this.Indices = {literals: {}, variables: {}, functions: {}};
+                this.Shape = "";
+                this.Shapes = [];
             }
 
             /**
@@ -150,65 +515,35 @@ SVGModule.define(
              */
             Parser.prototype = {
                 /**
-                 * The if-operator.
-                 * 
-                 * @type String[]
-                 */
-                IfOp: ['?'],
-                /**
-                 * The else-operator.
-                 * 
-                 * @type String[]
-                 */
-                ElOp: [':'],
-                /**
-                 * The relational operators (equals, less, etc.).
-                 * 
-                 * @type String[]
-                 */
-                RelOp: ['=', '<', '>'],
-                /**
-                 * The add- subtract- and or-operators.
-                 * 
-                 * @type String[]
-                 */
-                AddSubOrOp: ['+', '-', '|'],
-                /**
-                 * The multiply- divide- and and-operators.
-                 * 
-                 * @type String[]
-                 */
-                MultDevAndOp: ['*', '/', '&'],
-                /**
-                 * The negate- and not-operators.
-                 * 
-                 * @type String[]
-                 */
-                NegNotOp: ['-', '!'],
-                /**
-                 * The power-operator.
+                 * Records an instruction of the symbolic code.
                  * 
-                 * @type String[]
-                 */
-                PowOp: ['^'],
-                /**
-                 * The degree-operator.
-                 * 
-                 * @type String[]
-                 */
-                DegOp: ['r'],
-                /**
-                 * The factorial-operator.
-                 * 
-                 * @type String[]
+                 * @param {String} op The operation.
+                 * @param {String} pool The pool of the operand, or null.
+                 * @param {String} operand The operand, added to the pool when needed.
+                 * @param {Integer} paramCount The number of function parameters.
                  */
-                FacOp: ['!'],
+                Emit: function (op, pool, operand, paramCount) {
+                    var instruction = op;
+                    if (pool !== null) {
+                        var indices = this.Indices[pool];
+                        if (!indices.hasOwnProperty(operand)) {
+                            indices[operand] = this.Code[pool].push(operand) - 1;
+                        }
+                        instruction += indices[operand];
+                    }
+                    if (typeof paramCount !== 'undefined') {
+                        instruction += ':' + paramCount;
+                    }
+                    this.Code.code.push(instruction);
+                },
                 /**
                  * Puts a literal (numerical) value on the action list.
                  * 
                  * @param {Number} value The literal value.
                  */
                 Literal: function (value) {
+                    this.Emit('L', "literals", String(Number(value)));
+                    this.Shape = "";
                     this.ActionList.push({
                         apply: function (result, stack, variables) {
                             return value;
@@ -219,6 +554,8 @@ SVGModule.define(
                  * Puts a 'move to stack' action on the action list.
                  */
                 Move: function () {
+                    this.Emit('M', null);
+                    this.Shapes.unshift(this.Shape);
                     this.ActionList.push({
                         apply: function (result, stack, variables) {
                             stack.unshift(result);
@@ -232,15 +569,19 @@ SVGModule.define(
                  * @param {String} variable The variable name.
                  */
                 Variable: function (variable) {
+                    this.Emit('V', "variables", variable);
+                    this.Shape = variable;
                     this.ActionList.push({
                         apply: function (result, stack, variables) {
                             var Variables = variables || {};
-                            if (!Variables.hasOwnProperty(variable)) {
-                                var error = new Error("Unknown variable '#" + variable + "'");
-                                error.name = "NotFoundError";
-                                throw error;
+                            if (Variables.hasOwnProperty(variable)) {
+                                return Variables[variable];
+                            } else if (PARAMETERS.hasOwnProperty(variable)) {
+                                return PARAMETERS[variable];
                             }
-                            return Variables[variable];
+                            var error = new Error("Unknown variable '#" + variable + "'");
+                            error.name = "NotFoundError";
+                            throw error;
                         }
                     });
                 },
@@ -258,6 +599,12 @@ SVGModule.define(
                         error.name = "NotFoundError";
                         throw error;
                     }
+                    this.Emit('F', "functions", name, paramCount | 0);
+                    var shapes = (paramCount | 0) === 0 ? [] : [this.Shape];
+                    for (var i = 1; i < (paramCount | 0); ++i) {
+                        shapes.unshift(this.Shapes.shift());
+                    }
+                    this.Shape = shapeOf(name, shapes);
                     this.ActionList.push({
                         apply: function (result, stack, variables) {
                             var count = paramCount | 0;
@@ -281,7 +628,7 @@ SVGModule.define(
                     throw error;
                 },
                 /**
-                 * Retrieve the next character from the input stream.
+                 * Retrieve the next character code from the input stream.
                  */
                 GetChar: function () {
                     this.Look = this.Input.read();
@@ -290,60 +637,51 @@ SVGModule.define(
                  * Keep reading white-space characters to skip parsing.
                  */
                 SkipWhite: function () {
-                    while (this.Look === ' ' || this.Look === '\t') {
+                    while (this.Look === SPACE || this.Look === TAB) {
                         this.GetChar();
                     }
                 },
                 /**
-                 * Parses a variable token (after the '#' character).
+                 * Match the current character in the input stream to the given
+                 * character and skip to the next (non white space) character.
                  * 
-                 * Grammar:
-                 * variable := '#' [a-zA-Z] [a-zA-Z0-9_]*
+                 * @param {Integer} x The character code to match to.
+                 * @throws {Exception} When the characters do not match.
                  */
-                Var: function () {
-                    var Token = '';
-                    if (!/[a-zA-Z]/.test(this.Look)) { // [a-zA-Z]
-                        this.Expected("Variable");
+                Match: function (x) {
+                    if (this.Look !== x) {
+                        this.Expected("'" + String.fromCharCode(x) + "'");
+                    } else {
+                        this.GetChar();
+                        this.SkipWhite();
                     }
-                    while (/[a-zA-Z0-9_]/.test(this.Look)) { // [a-zA-z0-9_]*
-                        Token += this.Look;
+                },
+                /**
+                 * Reads the characters accepted by the given predicate.
+                 * 
+                 * @param {Function} accept The predicate on the character codes.
+                 * @returns {String} The characters read.
+                 */
+                Scan: function (accept) {
+                    var start = this.Input.pos - 1;
+                    while (accept(this.Look)) {
                         this.GetChar();
                     }
-                    this.SkipWhite();
-                    this.Variable(Token);
+                    return this.Input.stream.substring(start, this.Input.pos - 1);
                 },
                 /**
-                 * Parses a function token.
+                 * Parses a variable token (after the '#' character).
                  * 
                  * Grammar:
-                 * function := [a-z] [a-z0-9_]* ('(' special? | special (',' special)* ')')?
+                 * variable := '#' [a-zA-Z] [a-zA-Z0-9_]*
                  */
-                Func: function () {
-                    var Name = '';
-                    if (!/[a-z]/.test(this.Look)) { // [a-z]
-                        this.Expected("Function");
-                    }
-                    while (/[a-z0-9_]/.test(this.Look)) { // [a-z0-9_]*
-                        Name += this.Look;
-                        this.GetChar();
+                Var: function () {
+                    if (!isLetter(this.Look)) { // [a-zA-Z]
+                        this.Expected("Variable");
                     }
+                    var Token = this.Scan(isWord); // [a-zA-z0-9_]*
                     this.SkipWhite();
-                    var count = 0;
-                    if (this.Look === '(') {
-                        this.Match('(');
-                        if (this.Look !== ')') {
-                            this.Special();
-                            count++;
-                            while (this.Look === ',') { // (',' special)*
-                                this.Move();
-                                this.Match(',');
-                                this.Special();
-                                count++;
-                            }
-                        }
-                        this.Match(')');
-                    }
-                    this.Function(Name, count);
+                    this.Variable(Token);
                 },
                 /**
                  * Parses a number token.
@@ -354,350 +692,305 @@ SVGModule.define(
                  * non-zero := '1' | '2' | '3' | '4' | '5' | '6' | '7' | '8' | '9'
                  */
                 Num: function () {
-                    var Value = this.Look;
-                    if (!/[0-9\.]/.test(this.Look)) { // zero | non-zero | '.'
+                    var start = this.Input.pos - 1;
+                    if (this.Look === ZERO) { // zero
+                        this.GetChar();
+                        if (this.Look === DOT) { // ('.' fraction)?
+                            this.Frac();
+                        }
+                    } else if (this.Look === DOT) { // '.' fraction
+                        this.Frac();
+                    } else if (isDigit(this.Look)) { // non-zero
+                        this.GetChar();
+                        this.Int(false); // integer?
+                        if (this.Look === DOT) { // ('.' fraction)?
+                            this.Frac();
+                        } else { // exponent?
+                            this.Exp();
+                        }
+                    } else {
                         this.Expected("Number");
                     }
-                    switch (this.Look) {
-                        case '0': // zero
-                            this.GetChar();
-                            if (this.Look === '.') { // ('.' fraction)?
-                                Value += this.Look;
-                                Value += this.Frac();
-                            }
-                            break;
-                        case '.': // '.' fraction
-                            Value += this.Frac();
-                            break;
-                        default: // non-zero
-                            this.GetChar();
-                            Value += this.Int(false); // integer?
-                            if (this.Look === '.') { // ('.' fraction)?
-                                Value += this.Look;
-                                Value += this.Frac();
-                            } else { // exponent?
-                                Value += this.Exp();
-                            }
-                            break;
-                    }
+                    var Value = this.Input.stream.substring(start, this.Input.pos - 1);
                     this.SkipWhite();
                     this.Literal(new Number(Value));
                 },
                 /**
-                 * Parses and returns the fraction fragment of a number token.
-                 * The current character is assumed to be the '.' character but
-                 * is not included into the result.
+                 * Parses the fraction fragment of a number token. The current
+                 * character is assumed to be the '.' character.
                  * 
                  * Grammar:
                  * fraction := integer exponent?
-                 * 
-                 * @returns {String} The fraction part of a number or an empty
-                 *                   string when no fraction fragment is present.
                  */
                 Frac: function () {
-                    var Value = '';
-                    if (this.Look !== '.') {
-                        this.Expected("'.'");
-                    }
                     this.GetChar();
-                    Value += this.Int(true); // integer
-                    Value += this.Exp(); // exponent?
-                    return Value;
+                    this.Int(true); // integer
+                    this.Exp(); // exponent?
                 },
                 /**
-                 * Parses and returns the integer fragment of a number token
-                 * (required = false) or the integer part of an exponent part
-                 * or a fraction fragment (required = true).
+                 * Parses the integer fragment of a number token (required = false)
+                 * or the integer part of an exponent part or a fraction fragment
+                 * (required = true).
                  * 
                  * Grammar:
                  * integer := (zero | non-zero) (zero | non-zero)*
-                 * zero := '0'
-                 * non-zero := '1' | '2' | '3' | '4' | '5' | '6' | '7' | '8' | '9'
                  * 
                  * @param {Boolean} required Indicates whether or not the integer
                  *                           part is required.
-                 * @returns {String} The parsed integer part, or an empty string
-                 *                   when no integer part is present.
                  */
                 Int: function (required) {
-                    var Value = '';
-                    while (/[0-9]/.test(this.Look)) { // (zero | non-zero)*
-                        Value += this.Look;
-                        this.GetChar();
-                    }
-                    if (Value.length === 0 && required) {
+                    if (this.Scan(isDigit).length === 0 && required) { // (zero | non-zero)*
                         this.Expected("Integer");
                     }
-                    return Value;
                 },
                 /**
-                 * Parses and returns the exponent fragment of a number token
-                 * or the exponent part of a fraction fragment.
+                 * Parses the exponent fragment of a number token or the exponent
+                 * part of a fraction fragment.
                  * 
                  * Grammar:
                  * exponent := ('e' | 'E') ('+' | '-')? non-zero integer?
-                 * non-zero := '1' | '2' | '3' | '4' | '5' | '6' | '7' | '8' | '9'
-                 * 
-                 * @returns {String} The parsed exponent part, or an empty string
-                 *                   when no exponent part is present.
                  */
                 Exp: function () {
-                    var Value = '';
-                    if (this.Look === 'e' || this.Look === 'E') { // ('e' | 'E')
-                        Value += this.Look;
+                    if (this.Look === LOWER_E || this.Look === UPPER_E) { // ('e' | 'E')
                         this.GetChar();
-                        if (this.Look === '+' || this.Look === '-') { // ('+' | '-')?
-                            Value += this.Look;
+                        if (this.Look === PLUS || this.Look === MINUS) { // ('+' | '-')?
                             this.GetChar();
                         }
-                        if (!/[1-9]/.test(this.Look)) { // non-zero
+                        if (this.Look === ZERO || !isDigit(this.Look)) { // non-zero
                             this.Expected("Non-Zero");
                         }
-                        Value += this.Look;
                         this.GetChar();
-                        Value += this.Int(false); // integer?
+                        this.Int(false); // integer?
                     }
-                    return Value;
                 },
                 /**
-                 * Match the current character in the input stream to the given
-                 * character and skip to the next (non white space) character.
+                 * Pops the pending operation and puts its function evaluation
+                 * action on the action list.
                  * 
-                 * @param {String} x The character to match to.
-                 * @throws {Exception} When the characters do not match.
+                 * @param {Object[]} pending The pending operations.
                  */
-                Match: function (x) {
-                    if (this.Look !== x) {
-                        this.Expected("'" + x + "'");
-                    } else {
-                        this.GetChar();
-                        this.SkipWhite();
-                    }
-                },
-                /**
-                 * Parses a fragment token.
-                 * 
-                 * Grammar:
-                 * fragment := ('(' special ')' | variable | function | number) FacOp?
-                 */
-                Fragment: function () {
-                    if (this.Look === '(') { // '(' special ')'
-                        this.Match('(');
-                        this.Special();
-                        this.Match(')');
-                    } else if (this.Look === '#') { // variable
-                        this.Match('#');
-                        this.Var();
-                    } else if (/[a-z]/.test(this.Look)) { // function
-                        this.Func();
-                    } else { // number
-                        this.Num();
-                    }
-                    if (this.Look === this.FacOp[0]) { // FacOp?
-                        this.Match(this.FacOp[0]);
-                        this.Function("factorial", 1);
-                    }
+                Reduce: function (pending) {
+                    var operation = pending.pop();
+                    this.Function(operation.func, operation.count);
                 },
                 /**
-                 * Parses a signed-fragment token.
+                 * Parses a special token. The parser is iterative: instead of
+                 * descending for each grammar rule, the operations of which
+                 * the operands are still being parsed are kept on a stack, and
+                 * are put on the action list as soon as a following operator of
+                 * the same or lower precedence is read. The opened parentheses
+                 * and function parameter lists are kept on the same stack.
                  * 
                  * Grammar:
-                 * signed-fragment := NegNotOp? fragment
-                 */
-                SignedFragment: function () {
-                    var index = this.NegNotOp.indexOf(this.Look);
-                    if (index === -1) { // fragment
-                        this.Fragment();
-                    } else { // NegNotOp fragment
-                        this.Move();
-                        this.Match(this.NegNotOp[index]);
-                        var func;
-                        switch (index) {
-                            case 0:
-                                func = "neg";
-                                break;
-                            case 1:
-                                func = "not";
-                                break;
+                 * special := relation ('?' relation ':' relation)?
+                 * relation := expression (('==' | '<' | '<=' | '<>' | '>' | '>=') expression)*
+                 * expression := term (('+' | '-' | '||') term)*
+                 * term := signed-factor (('*' | '/' | '&&') signed-factor)*
+                 * signed-factor := ('-' | '!')? factor
+                 * factor := fragment ('^' signed-fragment)* 'r'?
+                 * signed-fragment := ('-' | '!')? fragment
+                 * fragment := ('(' special ')' | variable | function | number) '!'?
+                 * function := [a-z] [a-z0-9_]* ('(' special? | special (',' special)* ')')?
+                 */
+                Special: function () {
+                    var pending = [{precedence: CONTEXT, func: null, count: 0}];
+                    var operand = true;
+                    var sign = SIGNED_FACTOR;
+                    for (;;) {
+                        if (operand) {
+                            if (NEGNOT.hasOwnProperty(this.Look)) { // ('-' | '!')?
+                                this.Move();
+                                pending.push({precedence: sign, func: NEGNOT[this.Look], count: 1});
+                                this.Match(this.Look);
+                            }
+                            sign = SIGNED_FACTOR;
+                            if (this.Look === LEFT) { // '(' special ')'
+                                this.Match(LEFT);
+                                pending.push({precedence: CONTEXT, func: null, count: 0});
+                                continue;
+                            } else if (this.Look === HASH) { // variable
+                                this.Match(HASH);
+                                this.Var();
+                            } else if (isLower(this.Look)) { // function
+                                var name = this.Scan(isLowerWord);
+                                this.SkipWhite();
+                                if (this.Look === LEFT) {
+                                    this.Match(LEFT);
+                                    if (this.Look !== RIGHT) { // special (',' special)*
+                                        pending.push({precedence: CONTEXT, func: name, count: 1});
+                                        continue;
+                                    }
+                                    this.Match(RIGHT);
+                                }
+                                this.Function(name, 0);
+                            } else { // number
+                                this.Num();
+                            }
+                            operand = false;
+                        }
+                        // The fragment is complete.
+                        if (this.Look === BANG) { // '!'?
+                            this.Match(BANG);
+                            this.Function("factorial", 1);
+                        }
+                        if (pending[pending.length - 1].precedence === SIGNED_FRAGMENT) {
+                            this.Reduce(pending);
+                        }
+                        if (pending[pending.length - 1].precedence === POWER) {
+                            this.Reduce(pending);
+                        }
+                        if (this.Look === CARET) { // ('^' signed-fragment)*
+                            this.Move();
+                            this.Match(CARET);
+                            pending.push({precedence: POWER, func: "pow", count: 2});
+                            operand = true;
+                            sign = SIGNED_FRAGMENT;
+                            continue;
+                        }
+                        if (this.Look === DEG) { // 'r'?
+                            this.Match(DEG);
+                            this.Function("deg", 1);
+                        }
+                        if (pending[pending.length - 1].precedence === SIGNED_FACTOR) {
+                            this.Reduce(pending);
+                        }
+                        // The factor is complete.
+                        if (OPERATORS.hasOwnProperty(this.Look)) { // binary operator
+                            var operator = OPERATORS[this.Look];
+                            while (pending[pending.length - 1].precedence >= operator.precedence) {
+                                this.Reduce(pending);
+                            }
+                            this.Move();
+                            var func = operator.func;
+                            var first = this.Look;
+                            this.Match(first);
+                            if (operator.repeat) {
+                                this.Match(first);
+                            } else if (operator.suffix && operator.suffix.hasOwnProperty(this.Look)) {
+                                func = operator.suffix[this.Look];
+                                this.Match(this.Look);
+                            }
+                            pending.push({precedence: operator.precedence, func: func, count: 2});
+                            operand = true;
+                            continue;
+                        }
+                        while (pending[pending.length - 1].precedence >= RELATION) {
+                            this.Reduce(pending);
+                        }
+                        // The relation is complete.
+                        var top = pending[pending.length - 1];
+                        if (top.precedence === CONDITION) {
+                            if (top.count === 2) { // ':' relation
+                                this.Move();
+                                this.Match(COLON);
+                                top.count = 3;
+                                operand = true;
+                                continue;
+                            }
+                            this.Reduce(pending);
+                        } else if (this.Look === QUESTION) { // '?' relation
+                            this.Move();
+                            this.Match(QUESTION);
+                            pending.push({precedence: CONDITION, func: "ifthenelse", count: 2});
+                            operand = true;
+                            continue;
+                        }
+                        // The special is complete.
+                        var context = pending.pop();
+                        if (pending.length === 0) {
+                            return;
+                        } else if (context.func === null) { // '(' special ')'
+                            this.Match(RIGHT);
+                        } else if (this.Look === COMMA) { // ',' special
+                            this.Move();
+                            this.Match(COMMA);
+                            context.count++;
+                            pending.push(context);
+                            operand = true;
+                        } else {
+                            this.Match(RIGHT);
+                            this.Function(context.func, context.count);
                         }
-                        this.Fragment();
-                        this.Function(func, 1);
                     }
                 },
                 /**
-                 * Parses a factor token.
+                 * Parse the character input stream into the parse tree.
                  * 
-                 * Grammar:
-                 * factor := fragment (PowOp signed-fragment)* DegOp?
-                 */
-                Factor: function () {
-                    this.Fragment(); // fragment
-                    while (this.Look === this.PowOp[0]) { // (PowOp signed-fragment)*
-                        this.Move();
-                        this.Match(this.PowOp[0]);
-                        this.SignedFragment();
-                        this.Function("pow", 2);
-                    }
-                    if (this.Look === this.DegOp[0]) { // DegOp?
-                        this.Match(this.DegOp[0]);
-                        this.Function("deg", 1);
-                    }
+                 * @return {Visitor} The resulting parse tree.
+                 */
+                parse: function () {
+                    this.GetChar();
+                    this.SkipWhite();
+                    this.Special();
+                    this.Input.flush();
+                    return new Visitor(this.ActionList, this.Code, this.Shape);
                 },
                 /**
-                 * Parses a signed-factor token.
+                 * Loads the bytecode form of a parse tree, as created by
+                 * {@link Visitor#serialize}, into the parse tree.
                  * 
-                 * Grammar:
-                 * signed-factor := NegNotOp? factor
-                 */
-                SignedFactor: function () {
-                    var index = this.NegNotOp.indexOf(this.Look);
-                    if (index === -1) { // factor
-                        this.Factor();
-                    } else { // NegNotOp factor
-                        this.Move();
-                        this.Match(this.NegNotOp[index]);
-                        var func;
-                        switch (index) {
-                            case 0:
-                                func = "neg";
-                                break;
-                            case 1:
-                                func = "not";
-                                break;
-                        }
-                        this.Factor();
-                        this.Function(func, 1);
+                 * @param {String} bytecode The bytecode.
+                 * @throws {ParseError} When the bytecode is invalid.
+                 * @throws {NotFoundError} When a function is unknown.
+                 * @return {Visitor} The resulting parse tree.
+                 */
+                load: function (bytecode) {
+                    var parts = bytecode.split(';');
+                    if (parts.length !== 5 || parts[0] !== BYTECODE_VERSION || parts[1].length === 0) {
+                        this.Invalid(bytecode);
                     }
-                },
-                /**
-                 * Parses a term token.
-                 * 
-                 * Grammar:
-                 * term := signed-factor (MultDevAndOp signed-factor)*
-                 */
-                Term: function () {
-                    this.SignedFactor(); // signed-factor
-                    var index = this.MultDevAndOp.indexOf(this.Look);
-                    while (index !== -1) { // (MultDevAndOp signed-factor)*
-                        this.Move();
-                        this.Match(this.MultDevAndOp[index]);
-                        var func;
-                        switch (index) {
-                            case 0:
-                                func = "multiply";
-                                break;
-                            case 1:
-                                func = "divide";
-                                break;
-                            case 2:
-                                this.Match('&');
-                                func = "and";
-                                break;
+                    var literals = parts[2].length === 0 ? [] : parts[2].split(' ');
+                    var variables = parts[3].length === 0 ? [] : parts[3].split(' ');
+                    var functions = parts[4].length === 0 ? [] : parts[4].split(' ');
+                    var position = 0;
+                    var match;
+                    INSTRUCTION.lastIndex = 0;
+                    while ((match = INSTRUCTION.exec(parts[1])) !== null) {
+                        if (match.index !== position) {
+                            this.Invalid(bytecode);
                         }
-                        this.SignedFactor();
-                        this.Function(func, 2);
-                        index = this.MultDevAndOp.indexOf(this.Look);
-                    }
-                },
-                /**
-                 * Parses an expression token.
-                 * 
-                 * Grammar:
-                 * expression := term (AddSubOrOp term)*
-                 */
-                Expression: function () {
-                    this.Term(); // term
-                    var index = this.AddSubOrOp.indexOf(this.Look);
-                    while (index !== -1) { // (AddSubOrOp term)*
-                        this.Move();
-                        this.Match(this.AddSubOrOp[index]);
-                        var func;
-                        switch (index) {
-                            case 0:
-                                func = "add";
-                                break;
-                            case 1:
-                                func = "subtract";
-                                break;
-                            case 2:
-                                this.Match('|');
-                                func = "or";
+                        position = INSTRUCTION.lastIndex;
+                        var index = match[2].length === 0 ? -1 : Number(match[2]);
+                        switch (match[1]) {
+                            case 'L':
+                                if (index < 0 || index >= literals.length || isNaN(Number(literals[index]))) {
+                                    this.Invalid(bytecode);
+                                }
+                                this.Literal(new Number(literals[index]));
                                 break;
-                        }
-                        this.Term();
-                        this.Function(func, 2);
-                        index = this.AddSubOrOp.indexOf(this.Look);
-                    }
-                },
-                /**
-                 * Parses a relation token.
-                 * 
-                 * Grammar:
-                 * relation := expression (RelOp expression)*
-                 */
-                Relation: function () {
-                    this.Expression(); // expression
-                    var index = this.RelOp.indexOf(this.Look);
-                    while (index !== -1) { // (RelOp expression)*
-                        this.Move();
-                        this.Match(this.RelOp[index]);
-                        var func;
-                        switch (index) {
-                            case 0:
-                                this.Match('=');
-                                func = "equal";
+                            case 'M':
+                                this.Move();
                                 break;
-                            case 1:
-                                func = "less";
-                                if (this.Look === '=') {
-                                    this.Match('=');
-                                    func = "notgreater";
-                                } else if (this.Look === '>') {
-                                    this.Match('>');
-                                    func = "notequal";
+                            case 'V':
+                                if (index < 0 || !/^[a-zA-Z][a-zA-Z0-9_]*$/.test(variables[index])) {
+                                    this.Invalid(bytecode);
                                 }
+                                this.Variable(variables[index]);
                                 break;
-                            case 2:
-                                func = "greater";
-                                if (this.Look === '=') {
-                                    this.Match('=');
-                                    func = "notless";
+                            case 'F':
+                                if (index < 0 || typeof match[3] === 'undefined' ||
+                                        !/^[a-z][a-z0-9_]*$/.test(functions[index])) {
+                                    this.Invalid(bytecode);
                                 }
+                                this.Function(functions[index], Number(match[3]));
+                                break;
                         }
-                        this.Expression();
-                        this.Function(func, 2);
-                        index = this.RelOp.indexOf(this.Look);
                     }
-                },
-                /**
-                 * Parses a special token.
-                 * 
-                 * Grammar:
-                 * special := relation (IfOp relation ElOp relation)?
-                 */
-                Special: function () {
-                    this.Relation(); // relation
-                    if (this.Look === this.IfOp[0]) { // (IfOp relation ElOp relation)?
-                        this.Move();
-                        this.Match(this.IfOp[0]);
-                        this.Relation();
-                        this.Move();
-                        this.Match(this.ElOp[0]);
-                        this.Relation();
-                        this.Function("ifthenelse", 3);
+                    if (position !== parts[1].length) {
+                        this.Invalid(bytecode);
                     }
+                    return new Visitor(this.ActionList, this.Code, this.Shape);
                 },
                 /**
-                 * Parse the character input stream into the parse tree.
+                 * Throws an exception indicating that the bytecode is invalid.
                  * 
-                 * @return {Visitor} The resulting parse tree.
+                 * @param {String} bytecode The invalid bytecode.
+                 * @throws {ParseError}
                  */
-                parse: function () {
-                    this.GetChar();
-                    this.SkipWhite();
-                    this.Special();
-                    this.Input.flush();
-                    return new Visitor(this.ActionList);
+                Invalid: function (bytecode) {
+                    var error = new Error("Invalid bytecode: " + bytecode);
+                    error.name = "ParseError";
+                    throw error;
                 }
             };
 
@@ -720,6 +1013,47 @@ SVGModule.define(
                     var input = new CharacterStream(expression);
                     var parser = new Parser(input);
                     return parser.parse();
+                },
+                /**
+                 * Loads the given bytecode into a parse tree, without lexing
+                 * or parsing. The bytecode is created by {@link Visitor#serialize}.
+                 * 
+                 * @param {String} bytecode The bytecode string.
+                 * @returns {Visitor} The resulting parse tree.
+                 */
+                load: function (bytecode) {
+                    var parser = new Parser(null);
+                    return parser.load(bytecode);
+                },
+                /**
+                 * Sets the value of a document-level parameter, which can be
+                 * referred to as a variable by all parse trees.
+                 * 
+                 * @param {String} name The parameter name (without '#').
+                 * @param {Number} value The parameter value, or null to remove
+                 *                       the parameter.
+                 * @throws {ParseError} When the name is not a valid variable name.
+                 */
+                setParameter: function (name, value) {
+                    if (!/^[a-zA-Z][a-zA-Z0-9_]*$/.test(name)) {
+                        var error = new Error("Invalid parameter: " + name);
+                        error.name = "ParseError";
+                        throw error;
+                    }
+                    if (value === null) {
+                        delete PARAMETERS[name];
+                    } else {
+                        PARAMETERS[name] = Number(value);
+                    }
+                },
+                /**
+                 * Returns the value of a document-level parameter.
+                 * 
+                 * @param {String} name The parameter name (without '#').
+                 * @returns {Number} The parameter value, or null when not set.
+                 */
+                getParameter: function (name) {
+                    return PARAMETERS.hasOwnProperty(name) ? PARAMETERS[name] : null;
                 }
             };
         });
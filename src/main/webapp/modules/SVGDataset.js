@@ -0,0 +1,225 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+
+SVGModule.define(
+        "SVGDataset",
+        [],
+        function () {
+            /**
+             * The element types of the supported binary formats.
+             *
+             * @name FORMATS
+             * @type Object
+             */
+            var FORMATS = {
+                float64: typeof Float64Array === 'undefined' ? null : Float64Array,
+                float32: typeof Float32Array === 'undefined' ? null : Float32Array
+            };
+
+            /**
+             * Whether or not the typed arrays of this platform are little-endian,
+             * in which case a dataset can be viewed without copying it.
+             *
+             * @name LITTLE_ENDIAN
+             * @type Boolean
+             */
+            var LITTLE_ENDIAN = typeof Uint16Array === 'undefined'
+                    || new Uint8Array(new Uint16Array([1]).buffer)[0] === 1;
+
+            /**
+             * Reads a column of little-endian values into a new typed array.
+             * This is only needed on big-endian platforms.
+             *
+             * @param {ArrayBuffer} buffer The dataset.
+             * @param {Function} type The typed array constructor.
+             * @param {Integer} offset The byte offset of the column.
+             * @param {Integer} length The number of values in the column.
+             * @returns {Object} The typed array holding the column.
+             */
+            function read(buffer, type, offset, length) {
+                var view = new DataView(buffer, offset, length * type.BYTES_PER_ELEMENT);
+                var column = new type(length);
+                for (var i = 0; i < length; i++) {
+                    column[i] = type === Float64Array
+                            ? view.getFloat64(i * 8, true) : view.getFloat32(i * 4, true);
+                }
+                return column;
+            }
+
+            /**
+             * Returns the pixel column of an x coordinate.
+             *
+             * @param {Number} x The x coordinate.
+             * @param {Number} x0 The x coordinate of the first column.
+             * @param {Number} scale The number of columns per unit.
+             * @param {Integer} columns The number of columns.
+             * @returns {Integer} The column of the x coordinate.
+             */
+            function columnOf(x, x0, scale, columns) {
+                var column = Math.floor((x - x0) * scale);
+                return column < 0 ? 0 : (column < columns ? column : columns - 1);
+            }
+
+            /**
+             * The SVGDataset interface is used to view binary datasets as
+             * (x, y) coordinates and to reduce them to the points that are
+             * visible at a given width.
+             *
+             * @namespace SVGDataset
+             */
+            return {
+                /**
+                 * Views a binary dataset as its x and y columns. The dataset
+                 * holds all the little-endian x values followed by all the
+                 * y values. The columns are views on the buffer itself, the
+                 * values are not parsed nor copied.
+                 *
+                 * @param {ArrayBuffer} buffer The dataset.
+                 * @param {String} format The element format, 'float64' or 'float32'.
+                 * @throws {ParseError} When the length of the dataset does not
+                 *                      match the format.
+                 * @returns {Object} The 'xs' and 'ys' columns.
+                 */
+                wrap: function (buffer, format) {
+                    var type = FORMATS[format];
+                    if (!type || buffer.byteLength % (2 * type.BYTES_PER_ELEMENT) !== 0) {
+                        var error = new Error("Invalid " + format + " dataset length: " + buffer.byteLength);
+                        error.name = "ParseError";
+                        throw error;
+                    }
+                    var length = buffer.byteLength / (2 * type.BYTES_PER_ELEMENT);
+                    var offset = length * type.BYTES_PER_ELEMENT;
+                    if (LITTLE_ENDIAN) {
+                        return {xs: new type(buffer, 0, length), ys: new type(buffer, offset, length)};
+                    }
+                    return {xs: read(buffer, type, 0, length), ys: read(buffer, type, offset, length)};
+                },
+                /**
+                 * Loads a binary dataset.
+                 *
+                 * @param {String} url The location of the dataset.
+                 * @param {String} format The element format, 'float64' or 'float32'.
+                 * @param {Function} callback The function receiving the
+                 *                            dataset's columns, see {@link SVGDataset#wrap}.
+                 * @param {Function} failed The function called with the error
+                 *                          when the dataset could not be
+                 *                          loaded (a NotFoundError) or read
+                 *                          (a ParseError).
+                 */
+                load: function (url, format, callback, failed) {
+                    var self = this;
+                    var request = new XMLHttpRequest();
+                    request.open("GET", url, true);
+                    request.responseType = "arraybuffer";
+                    var notFound = function () {
+                        var error = new Error("Dataset not found: " + url);
+                        error.name = "NotFoundError";
+                        failed(error);
+                    };
+                    request.onload = function () {
+                        if (request.status >= 200 && request.status < 300 || request.status === 0) {
+                            var dataset;
+                            try {
+                                dataset = self.wrap(request.response, format);
+                            } catch (e) {
+                                failed(e);
+                                return;
+                            }
+                            callback(dataset);
+                        } else {
+                            notFound();
+                        }
+                    };
+                    request.onerror = notFound;
+                    request.send();
+                },
+                /**
+                 * Reduces the dataset to the points that determine its shape
+                 * at the given width (the M4 aggregation). The x range is
+                 * divided into pixel columns and of each column only the first
+                 * and last point and the points with the minimum and maximum
+                 * y value are kept. Drawn as connected lines the result covers
+                 * the same pixels as the complete dataset.
+                 * The x values must be in ascending order.
+                 *
+                 * @param {Float64Array} xs The x values.
+                 * @param {Float64Array} ys The y values.
+                 * @param {Integer} columns The number of pixel columns.
+                 * @returns {Int32Array} The ascending indices of the points
+                 *          to be drawn.
+                 */
+                decimate: function (xs, ys, columns) {
+                    var length = xs.length;
+                    var i;
+                    if (length <= 4 * columns) {
+                        var all = new Int32Array(length);
+                        for (i = 0; i < length; i++) {
+                            all[i] = i;
+                        }
+                        return all;
+                    }
+                    var x0 = xs[0];
+                    var scale = xs[length - 1] > x0 ? columns / (xs[length - 1] - x0) : 0;
+                    var result = new Int32Array(4 * columns);
+                    var count = 0;
+                    var first = 0;
+                    var min = 0;
+                    var max = 0;
+                    var current = columnOf(x0, x0, scale, columns);
+                    for (i = 1; i <= length; i++) {
+                        var column = i < length ? columnOf(xs[i], x0, scale, columns) : -1;
+                        if (column === current) {
+                            if (ys[i] < ys[min]) {
+                                min = i;
+                            } else if (ys[i] > ys[max]) {
+                                max = i;
+                            }
+                            continue;
+                        }
+                        var last = i - 1;
+                        var low = min < max ? min : max;
+                        var high = min < max ? max : min;
+                        result[count++] = first;
+                        if (low !== first) {
+                            result[count++] = low;
+                        }
+                        if (high !== low && high !== last) {
+                            result[count++] = high;
+                        }
+                        if (last !== first && last !== low) {
+                            result[count++] = last;
+                        }
+                        first = min = max = i;
+                        current = column;
+                    }
+                    return result.subarray(0, count);
+                }
+            };
+        }
+);
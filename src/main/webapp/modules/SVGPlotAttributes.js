@@ -104,12 +104,17 @@ SVGModule.define(
                     }
                 },
                 /**
-                 * Parses a 'samples' attribute value.
+                 * Parses a 'samples' attribute value: a number of samples or
+                 * 'auto' to derive it from the plot's on-screen size.
                  * 
                  * @param {String} attr The string value to be parsed.
-                 * @throws {ParseError} When the parsed value is not a positive integer.
+                 * @throws {ParseError} When the parsed value is not a positive
+                 *                      integer nor 'auto'.
                  */
                 samples: function (attr) {
+                    if (attr === "auto") {
+                        return attr;
+                    }
                     var target = 0 | Number(attr);
                     if (target > 0) {
                         return target;
@@ -169,9 +174,213 @@ SVGModule.define(
                             throw error;
                     }
                     return pTree;
+                },
+                /**
+                 * Parses a 'function-bc' attribute value: the bytecode of the
+                 * 'function' attribute, as created by {@link Visitor#serialize}.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string has not the 'function-bc' format.
+                 */
+                "function-bc": function (attr) {
+                    var pTree = [];
+                    var target = attr.split(',');
+                    var index = 0;
+                    switch (target.length) {
+                        case 2:
+                            pTree[0] = ExpressionParser.load(target[index++]);
+                        case 1:
+                            pTree[1] = ExpressionParser.load(target[index]);
+                            break;
+                        default:
+                            var error = new Error("Invalid function: " + attr);
+                            error.name = "ParseError";
+                            throw error;
+                    }
+                    return pTree;
+                },
+                /**
+                 * Parses a 'profile' attribute value.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string is not one of 'true' or 'false'.
+                 */
+                profile: function (attr) {
+                    if (attr === "true" || attr === "false") {
+                        return attr === "true";
+                    }
+                    var error = new Error("Invalid profile: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'backend' attribute value.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string is not one of 'js' or 'wasm'.
+                 */
+                backend: function (attr) {
+                    if (attr === "js" || attr === "wasm") {
+                        return attr;
+                    }
+                    var error = new Error("Invalid backend: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'period' attribute value: the period of the
+                 * 'function' attribute in the variable.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the parsed value is not a positive number.
+                 */
+                period: function (attr) {
+                    var period = Number(ExpressionParser.parse(attr).visit());
+                    if (period > 0 && isFinite(period)) {
+                        return period;
+                    }
+                    var error = new Error("Invalid period: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'series' attribute value: the capacity of the data series.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the parsed value is not a positive integer.
+                 */
+                series: function (attr) {
+                    var target = 0 | Number(attr);
+                    if (target > 0) {
+                        return target;
+                    }
+                    var error = new Error("Invalid series: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'src' attribute value: the location of a binary dataset.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string is empty.
+                 */
+                src: function (attr) {
+                    if (/\S/.test(attr)) {
+                        return attr;
+                    }
+                    var error = new Error("Invalid src: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'format' attribute value: the element format of the
+                 * 'src' attribute's dataset.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string is not one of 'float64' or 'float32'.
+                 */
+                format: function (attr) {
+                    if (attr === "float64" || attr === "float32") {
+                        return attr;
+                    }
+                    var error = new Error("Invalid format: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'zoom' attribute value.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string is not one of 'true' or 'false'.
+                 */
+                zoom: function (attr) {
+                    if (attr === "true" || attr === "false") {
+                        return attr === "true";
+                    }
+                    var error = new Error("Invalid zoom: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'sweep' attribute value: a parameter and its range,
+                 * in the format '#name=start:end[:step]' with a step of 1 by
+                 * default.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string has not the 'sweep' format,
+                 *                      or the range is empty or has more than
+                 *                      {@link MAX_SWEEP} values.
+                 */
+                sweep: function (attr) {
+                    var match = /^#?([a-zA-Z][a-zA-Z0-9_]*)=(.*)$/.exec(attr);
+                    var range = match === null ? [] : match[2].split(':');
+                    if (range.length === 2 || range.length === 3) {
+                        var start = Number(ExpressionParser.parse(range[0]).visit());
+                        var end = Number(ExpressionParser.parse(range[1]).visit());
+                        var step = range.length === 3 ? Number(ExpressionParser.parse(range[2]).visit()) : 1;
+                        var count = Math.floor((end - start) / step + 1e-9) + 1;
+                        if (step > 0 && count >= 1 && count <= MAX_SWEEP) {
+                            var values = [];
+                            for (var i = 0; i < count; i++) {
+                                values.push(start + i * step);
+                            }
+                            return {name: match[1], values: values};
+                        }
+                    }
+                    var error = new Error("Invalid sweep: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'distribution' attribute value: one of 'linear',
+                 * 'log' or 'chebyshev', or an expression in '#t' that maps the
+                 * relative index of a sample (from 0 to 1) to its relative
+                 * position in the domain.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the string is not one of the names
+                 *                      nor an expression in '#t'.
+                 */
+                distribution: function (attr) {
+                    if (/^(linear|log|chebyshev)$/.test(attr)) {
+                        return attr;
+                    }
+                    if (attr.indexOf('#') !== -1) {
+                        var pTree = ExpressionParser.parse(attr);
+                        if (pTree.variables().indexOf('t') !== -1) {
+                            return pTree;
+                        }
+                    }
+                    var error = new Error("Invalid distribution: " + attr);
+                    error.name = "ParseError";
+                    throw error;
+                },
+                /**
+                 * Parses a 'segment' attribute value: the number of samples of
+                 * each separate path segment.
+                 * 
+                 * @param {String} attr The string value to be parsed.
+                 * @throws {ParseError} When the parsed value is not a positive integer.
+                 */
+                segment: function (attr) {
+                    var target = 0 | Number(attr);
+                    if (target > 0) {
+                        return target;
+                    }
+                    var error = new Error("Invalid segment: " + attr);
+                    error.name = "ParseError";
+                    throw error;
                 }
             };
 
+            /**
+             * The maximum number of values of a 'sweep' attribute.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var MAX_SWEEP = 1000;
+
             /**
              * This object holds the default values for the attributes.
              * The default value is set at attribute creation and is looked-up
@@ -184,13 +393,35 @@ SVGModule.define(
              * @property {String} variable The default variable.
              * @property {String} connected The default connection type.
              * @property {Visitor} function The default function value object.
+             * @property {Visitor} function-bc The default function bytecode value object.
+             * @property {Boolean} profile The default profiling flag.
+             * @property {String} backend The default evaluation backend.
+             * @property {Number} period The default period (none).
+             * @property {Integer} series The default data series capacity (none).
+             * @property {String} src The default dataset location (none).
+             * @property {String} format The default dataset element format.
+             * @property {Boolean} zoom The default zoom-aware tiling flag.
+             * @property {Object} sweep The default swept parameter (none).
+             * @property {String} distribution The default sample distribution.
+             * @property {Integer} segment The default segment size (none).
              */
             var DEFAULTS = {
                 domain: [-5, 5],
                 samples: 25,
                 variable: "#x",
                 connected: "sharp",
-                function: null
+                function: null,
+                "function-bc": null,
+                profile: false,
+                backend: "js",
+                period: null,
+                series: null,
+                src: null,
+                format: "float64",
+                zoom: false,
+                sweep: null,
+                distribution: "linear",
+                segment: null
             };
 
             /**
@@ -40,23 +40,37 @@ SVGModule.define(
 
             /**
              * This method inspects the given element. If it is an SVGPlotElement
-             * it is delegated to the SVGPlotter, otherwise its children are
-             * inspected recursively.
+             * it is collected, otherwise its children are inspected recursively.
              * 
              * @param {Node} element The element being inspected.
+             * @param {Element[]} plots The collected SVGPlotElements.
              */
-            function handle(element) {
+            function collect(element, plots) {
                 if (element.nodeName.toLowerCase() === "plot" &&
                         element !== plotElement) {
-                    plotElement = element;
-                    SVGPlotter.handle(element);
+                    plots.push(element);
                 } else {
                     for (var i = 0; i < element.childElementCount; i++) {
-                        handle(element.children[i]);
+                        collect(element.children[i], plots);
                     }
                 }
             }
 
+            /**
+             * Delegates all the SVGPlotElements in the given element to the
+             * SVGPlotter at once, so the document is changed only once.
+             * 
+             * @param {Node} element The element being inspected.
+             */
+            function handle(element) {
+                var plots = [];
+                collect(element, plots);
+                if (plots.length > 0) {
+                    plotElement = plots[plots.length - 1];
+                    SVGPlotter.handleAll(plots);
+                }
+            }
+
             /* The SVGDocument is guaranteed to be loaded here. */
             handle(document.documentElement);
             /* Listen for document changes. */
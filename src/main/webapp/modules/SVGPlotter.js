@@ -29,20 +29,58 @@
 
 SVGModule.define(
         "SVGPlotter",
-        ["SVGPlotAttributes", "ExpressionParser"],
-        function (SVGPlotAttributes, ExpressionParser) {
+        ["SVGPlotAttributes", "ExpressionParser", "ExpressionCompiler", "SVGDataset"],
+        function (SVGPlotAttributes, ExpressionParser, ExpressionCompiler, SVGDataset) {
             /**
              * @class The PathCreator is responsible for converting an SVGPlotElement
              *        into an SVGPathElement.
              *        The conversion is done by evaluating the given function and
              *        creating the appropriate path data with the resulting coordinates.
              * @name PathCreator
-             * @property {Element} pathElement The SVGPathElement being constructed.
+             * @param {Profile} profiler The profile to record the stage durations
+             *                          in, or null when not profiling.
+             * @property {Element} pathElement The SVGPathElement being constructed,
+             *                                or the SVGGElement holding the
+             *                                segments of a 'segment' plot.
+             * @property {Profile} profiler The profile of the conversion, or null.
+             * @property {Integer} count The number of samples when the 'samples'
+             *                           attribute is 'auto', or the number
+             *                           of pixel columns of a 'src' plot.
+             * @property {Object} dataset The loaded 'xs' and 'ys' columns of
+             *                            a 'src' plot, see {@link SVGDataset#wrap},
+             *                            or null.
+             * @property {Boolean} explicit Whether or not the x component is
+             *                            the variable itself.
+             * @property {Object} view The visible tiles of a 'zoom' plot, see
+             *                         {@link PathCreator#measure}, or null.
+             * @property {Object} tiles The cached tiles of a 'zoom' plot by
+             *                          level and index.
+             * @property {String[]} tileKeys The keys of the cached tiles, the
+             *                               least recently used first.
+             * @property {Boolean} changed Whether or not a parameter the plot
+             *                           depends on changed since it was
+             *                           last evaluated.
+             * @property {Element} plotElement The SVGPlotElement being converted.
+             * @property {Element[]} segments The SVGPathElements of the segments
+             *                                of a 'segment' plot.
+             * @property {Object} pending The segments still to be created, see
+             *                            {@link PathCreator#createSegments}, or null.
              * @property {SVGPlotAttribute} names Actually all the SVPlotAttributes
              *                                    as defined by {@link SVGPlotAttribute#names}.
              */
-            function PathCreator() {
+            function PathCreator(profiler) {
                 this.pathElement = document.createElementNS(SVGModule.SVG_NS, "path");
+                this.plotElement = null;
+                this.profiler = profiler;
+                this.count = null;
+                this.dataset = null;
+                this.explicit = false;
+                this.view = null;
+                this.tiles = {};
+                this.tileKeys = [];
+                this.changed = false;
+                this.segments = [];
+                this.pending = null;
                 var names = SVGPlotAttributes.names();
                 for (var i = 0; i < names.length; i++) {
                     var attr = names[i];
@@ -55,63 +93,1569 @@ SVGModule.define(
              */
             PathCreator.prototype = {
                 /**
-                 * Parses all the SVGPlotElement's attributes and children into
-                 * the SVGPathElement.
+                 * Parses all the SVGPlotElement's attributes into the
+                 * SVGPathElement. The children are moved when the plot is
+                 * committed, see {@link commit}. When the 'function-bc' attribute is present
+                 * the 'function' attribute is not parsed. When the 'segment'
+                 * attribute is present they are parsed into an SVGGElement
+                 * instead, unless the plot is a 'series' or 'src' plot.
                  * 
                  * @param {Element} plotElement The SVGPlotElement being handled.
                  */
                 parseSVGPlotElement: function (plotElement) {
+                    var compiled = plotElement.hasAttribute("function-bc");
+                    if (plotElement.hasAttribute("segment") && !plotElement.hasAttribute("series")
+                            && !plotElement.hasAttribute("src")) {
+                        this.pathElement = document.createElementNS(SVGModule.SVG_NS, "g");
+                    }
                     var attributes = plotElement.attributes;
                     for (var i = 0; i < attributes.length; ++i) {
                         var attribute = attributes[i];
-                        if (typeof this[attribute.name] === 'undefined') {
+                        if (compiled && attribute.name === "function") {
+                            continue; // The bytecode takes precedence.
+                        } else if (typeof this[attribute.name] === 'undefined') {
                             this.pathElement.setAttribute(attribute.name, attribute.value);
                         } else {
                             this[attribute.name].parse(attribute.value);
                         }
+                        if (this.profiler !== null) {
+                            this.profiler.lap(/^function/.test(attribute.name) ? "expression" : "attributes");
+                        }
                     }
-                    while (plotElement.firstChild) {
-                        this.pathElement.appendChild(plotElement.removeChild(plotElement.firstChild));
+                    if (compiled) {
+                        this["function"].value = this["function-bc"].value;
+                        this["function"].set = true;
                     }
+                    this.plotElement = plotElement;
                 },
                 /**
                  * Creates the path data by evaluating the 'function' attribute.
                  * This method assumes that the 'function' attribute it set.
                  */
                 createPath: function () {
-                    var scale = 1; // May be useful later.
-                    var token = this["connected"].value === "smooth" ? 'S' : 'L';
+                    if (this["segment"].value !== null) {
+                        this.createSegments();
+                        return;
+                    }
+                    var family = this["sweep"].value === null ? [this.evaluate()] : this.evaluateFamily();
+                    if (this.profiler !== null) {
+                        this.profiler.lap("evaluation");
+                    }
+                    var paths = [];
+                    var count = 0;
+                    for (var i = 0; i < family.length; i++) {
+                        paths.push(this.serialize(family[i]));
+                        count += family[i].count;
+                    }
+                    var path = paths.join('');
+                    if (this.profiler !== null) {
+                        this.profiler.lap("serialization");
+                        this.profiler.samples = count;
+                        this.profiler.length = path.length;
+                    }
+                    this.pathElement.setAttribute("d", path);
+                },
+                /**
+                 * Creates the segments of a 'segment' plot. The samples are
+                 * divided into segments of at most the 'segment' attribute's
+                 * number of steps, each a separate SVGPathElement, and adjacent
+                 * segments share the sample at which they join. The first
+                 * segment is created at once, the others on the next animation
+                 * frames, as many as fit in {@link SEGMENT_BUDGET} per frame,
+                 * so every segment is painted as soon as it is ready. When
+                 * profiling all segments are created at once.
+                 * Re-creating the segments evaluates and serialises all of
+                 * them again: a changed parameter or number of 'auto' samples
+                 * changes the samples of every segment, so there are no
+                 * unaffected segments to keep. Only the SVGPathElements whose
+                 * path data changed are written.
+                 * The periodic and affine evaluations are not used.
+                 */
+                createSegments: function () {
+                    var smooth = this["connected"].value === "smooth";
+                    var count = this.count !== null ? this.count : this["samples"].value;
+                    this.pending = {
+                        values: this.positions(count, smooth),
+                        count: count,
+                        smooth: smooth,
+                        index: 0,
+                        total: Math.ceil(count / this["segment"].value)
+                    };
+                    this.continueSegments(this.profiler !== null ? Infinity : 0);
+                },
+                /**
+                 * Creates the pending segments for at most the given time, at
+                 * least one, and schedules the rest for the next animation
+                 * frame. When all are created the surplus segments of a
+                 * previous evaluation are removed.
+                 * 
+                 * @param {Number} budget The time (in milliseconds) to spend.
+                 */
+                continueSegments: function (budget) {
+                    var job = this.pending;
+                    var begin = now();
+                    do {
+                        this.createSegment(job, job.index++);
+                    } while (job.index < job.total && now() - begin < budget);
+                    if (job.index < job.total) {
+                        var self = this;
+                        var callback = function () {
+                            if (self.pending === job) {
+                                self.continueSegments(SEGMENT_BUDGET);
+                            }
+                        };
+                        if (typeof window.requestAnimationFrame === 'function') {
+                            window.requestAnimationFrame(callback);
+                        } else {
+                            window.setTimeout(callback, 16);
+                        }
+                        return;
+                    }
+                    while (this.segments.length > job.total) {
+                        this.pathElement.removeChild(this.segments.pop());
+                    }
+                    this.pending = null;
+                },
+                /**
+                 * Evaluates and serialises the segment with the given index.
+                 * Its SVGPathElement is only updated when its path data changed.
+                 * 
+                 * @param {Object} job The pending segments, see
+                 *                     {@link PathCreator#createSegments}.
+                 * @param {Integer} index The index of the segment.
+                 */
+                createSegment: function (job, index) {
+                    var first = index * this["segment"].value;
+                    var steps = Math.min(this["segment"].value, job.count - first);
+                    var values = new Float64Array(job.smooth ? 2 * steps + 1 : steps + 1);
+                    values.set(job.values.subarray(first, first + steps + 1));
+                    if (job.smooth) {
+                        values.set(job.values.subarray(job.count + 1 + first, job.count + 1 + first + steps), steps + 1);
+                    }
+                    var family;
+                    if (this["sweep"].value === null) {
+                        var functions = this.components();
+                        var v = this["variable"].value.substring(1);
+                        family = [this.sample(functions[0], functions[1], v, values, steps, job.smooth)];
+                    } else {
+                        family = this.sampleFamily(values, steps, job.smooth);
+                    }
+                    if (this.profiler !== null) {
+                        this.profiler.lap("evaluation");
+                    }
+                    var paths = [];
+                    for (var i = 0; i < family.length; i++) {
+                        paths.push(this.serialize(family[i]));
+                        if (this.profiler !== null) {
+                            this.profiler.samples += family[i].count;
+                        }
+                    }
+                    var path = paths.join('');
+                    if (this.profiler !== null) {
+                        this.profiler.lap("serialization");
+                        this.profiler.length += path.length;
+                    }
+                    var element = this.segments[index];
+                    if (typeof element === 'undefined') {
+                        element = document.createElementNS(SVGModule.SVG_NS, "path");
+                        this.pathElement.appendChild(element);
+                        this.segments.push(element);
+                    }
+                    if (element.getAttribute("d") !== path) {
+                        element.setAttribute("d", path);
+                    }
+                },
+                /**
+                 * Loads the dataset of the 'src' attribute and creates the
+                 * path data from it when it has arrived, see
+                 * {@link PathCreator#createDatasetPath}. A rendered plot is
+                 * then tracked, so it is decimated again when its on-screen
+                 * width changes. When the dataset cannot be loaded the error
+                 * is reported to the loader's error handler.
+                 */
+                loadPath: function () {
+                    var creator = this;
+                    SVGDataset.load(this["src"].value, this["format"].value, function (dataset) {
+                        creator.dataset = dataset;
+                        var measurement = creator.measure();
+                        creator.update(measurement, true);
+                        if (measurement !== null) {
+                            track(creator);
+                        }
+                    }, function (error) {
+                        onerror(error);
+                    });
+                },
+                /**
+                 * Creates the path data of a 'src' plot by decimating its
+                 * dataset to the current number of pixel columns, see
+                 * {@link SVGDataset#decimate}.
+                 */
+                createDatasetPath: function () {
+                    var xs = this.dataset.xs;
+                    var ys = this.dataset.ys;
+                    if (xs.length === 0) {
+                        return;
+                    }
+                    var indices = SVGDataset.decimate(xs, ys, this.count);
+                    var points = new Float64Array(2 * indices.length);
+                    for (var i = 0; i < indices.length; i++) {
+                        points[2 * i] = xs[indices[i]];
+                        points[2 * i + 1] = -ys[indices[i]];
+                    }
+                    var path = this.serialize({points: points, mids: null});
+                    if (this.pathElement.getAttribute("d") !== path) {
+                        this.pathElement.setAttribute("d", path);
+                    }
+                },
+                /**
+                 * Measures the on-screen size of the plot. This only reads from
+                 * the document.
+                 * For a 'src' plot this is the number of pixel columns: the
+                 * device pixels of the dataset's projected x range.
+                 * For the 'auto' value of the 'samples' attribute this is the
+                 * number of samples: one sample per {@link PIXELS_PER_SAMPLE}
+                 * device pixels of the domain's projected on-screen length,
+                 * clamped to [{@link MIN_SAMPLES}, {@link MAX_SAMPLES}].
+                 * For a 'zoom' plot this is the view: the tile 'level' giving
+                 * the same resolution, and the indices of the 'first' and
+                 * 'last' tile in the visible part of the domain. The whole
+                 * domain is visible for parametric plots and rotated plots.
+                 * The level is lowered when more than {@link MAX_TILES} tiles
+                 * would be visible.
+                 * 
+                 * @returns {Object} The number of samples or the view, or null
+                 *          when the SVGPathElement is not rendered.
+                 */
+                measure: function () {
+                    var ctm = this.pathElement.getScreenCTM ? this.pathElement.getScreenCTM() : null;
+                    if (ctm === null) {
+                        return null;
+                    }
+                    if (this.dataset !== null) {
+                        var xs = this.dataset.xs;
+                        var range = xs.length > 0 ? xs[xs.length - 1] - xs[0] : 0;
+                        return Math.max(1, Math.ceil(Math.abs(ctm.a) * range * (window.devicePixelRatio || 1)));
+                    }
                     var start = this["domain"].value[0];
                     var end = this["domain"].value[1];
-                    var count = this["samples"].value;
-                    var step = (end - start) / count;
+                    var scale = Math.sqrt(ctm.a * ctm.a + ctm.b * ctm.b) * (window.devicePixelRatio || 1);
+                    if (!this.tiled()) {
+                        var count = Math.round(scale * (end - start) / PIXELS_PER_SAMPLE);
+                        return Math.min(MAX_SAMPLES, Math.max(MIN_SAMPLES, count));
+                    }
+                    this.components();
+                    var level = Math.ceil(Math.log(scale * (end - start) / (PIXELS_PER_SAMPLE * TILE_SAMPLES)) / Math.LN2);
+                    level = Math.min(MAX_LEVEL, Math.max(0, level));
+                    var width = (end - start) / Math.pow(2, level);
+                    var view = {level: level, first: 0, last: Math.pow(2, level) - 1};
+                    if (this.explicit && ctm.b === 0 && ctm.c === 0) {
+                        var viewport = outermost(this.pathElement).getBoundingClientRect();
+                        var left = (viewport.left - ctm.e) / ctm.a;
+                        var right = (viewport.right - ctm.e) / ctm.a;
+                        view.first = Math.max(view.first, Math.floor((Math.min(left, right) - start) / width));
+                        view.last = Math.min(view.last, Math.ceil((Math.max(left, right) - start) / width) - 1);
+                    }
+                    if (view.last - view.first >= MAX_TILES) {
+                        var shift = Math.ceil(Math.log((view.last - view.first + 1) / MAX_TILES) / Math.LN2);
+                        view.level -= shift;
+                        view.first >>= shift;
+                        view.last >>= shift;
+                    }
+                    return view;
+                },
+                /**
+                 * Updates the path data of a plot with 'auto' samples, a 'zoom'
+                 * plot or a loaded 'src' plot to the given measurement. The
+                 * path data is only changed when the number of samples or
+                 * pixel columns changed by more than the
+                 * {@link RESAMPLE_THRESHOLD}, or when the view changed.
+                 * 
+                 * @param {Object} measurement The measurement as returned by
+                 *                             {@link PathCreator#measure}.
+                 * @param {Boolean} initial Whether or not the path data is
+                 *                          created for the first time, in
+                 *                          which case a plot that is not
+                 *                          rendered gets the default samples,
+                 *                          or a 'src' plot its 'samples'.
+                 */
+                update: function (measurement, initial) {
+                    if (measurement === null) {
+                        if (initial) {
+                            this.count = SVGPlotAttributes.create("samples").value;
+                            if ((this.tiled() || this.dataset !== null) && this["samples"].value !== "auto") {
+                                this.count = this["samples"].value;
+                            }
+                            this.resample();
+                        }
+                    } else if (this.dataset === null && this.tiled()) {
+                        var view = this.view;
+                        if (initial || view === null || view.level !== measurement.level
+                                || view.first !== measurement.first || view.last !== measurement.last) {
+                            this.view = measurement;
+                            this.createTiledPath();
+                        }
+                    } else if (initial || Math.abs(measurement - this.count) > RESAMPLE_THRESHOLD * this.count) {
+                        this.count = measurement;
+                        this.resample();
+                    }
+                },
+                /**
+                 * Creates the path data with the current number of samples:
+                 * by decimating the dataset of a 'src' plot, or else by
+                 * evaluating the plot.
+                 */
+                resample: function () {
+                    if (this.dataset !== null) {
+                        this.createDatasetPath();
+                    } else {
+                        this.createPath();
+                    }
+                },
+                /**
+                 * Indicates whether or not the plot is tiled: a 'zoom' plot
+                 * without a 'sweep' nor 'segment' attribute and with a 'linear'
+                 * distribution.
+                 * 
+                 * @returns {Boolean} Whether or not the plot is tiled.
+                 */
+                tiled: function () {
+                    return this["zoom"].value && this["sweep"].value === null
+                            && this["segment"].value === null && this["distribution"].value === "linear";
+                },
+                /**
+                 * Creates the path data of a 'zoom' plot from the tiles of its
+                 * view. Tiles are taken from the cache when possible.
+                 */
+                createTiledPath: function () {
+                    var view = this.view;
+                    var path = [];
+                    for (var i = view.first; i <= view.last; i++) {
+                        var tile = this.getTile(view.level, i);
+                        if (i === view.first) {
+                            path.push(tile.head);
+                        }
+                        path.push(tile.tail);
+                    }
+                    this.pathElement.setAttribute("d", path.join(''));
+                },
+                /**
+                 * Returns the serialised tile with the given index at the given
+                 * level. At level n the domain is divided into 2^n tiles of
+                 * {@link TILE_SAMPLES} samples each. The {@link TILE_CACHE_SIZE}
+                 * most recently used tiles are cached.
+                 * 
+                 * @param {Integer} level The level of the tile.
+                 * @param {Integer} index The index of the tile at its level.
+                 * @returns {Object} The tile: the 'head' moving to its first
+                 *          sample and the 'tail' drawing to the others.
+                 */
+                getTile: function (level, index) {
+                    var key = level + ':' + index;
+                    var tile = this.tiles[key];
+                    if (typeof tile !== 'undefined') {
+                        this.tileKeys.splice(this.tileKeys.indexOf(key), 1);
+                        this.tileKeys.push(key);
+                        return tile;
+                    }
+                    var functions = this.components();
+                    var start = this["domain"].value[0];
+                    var width = (this["domain"].value[1] - start) / Math.pow(2, level);
+                    var v = this["variable"].value.substring(1);
+                    var smooth = this["connected"].value === "smooth";
+                    var values = linear(start + index * width, width / TILE_SAMPLES, TILE_SAMPLES, smooth);
+                    var samples = this.sample(functions[0], functions[1], v, values, TILE_SAMPLES, smooth);
+                    var points = samples.points;
+                    var tail = [];
+                    for (var i = 1; i <= TILE_SAMPLES; i++) {
+                        tail.push(command(points, samples.mids, i, false, 0, 0));
+                    }
+                    tile = {head: 'M' + points[0] + ',' + points[1], tail: tail.join('')};
+                    this.tiles[key] = tile;
+                    this.tileKeys.push(key);
+                    if (this.tileKeys.length > TILE_CACHE_SIZE) {
+                        delete this.tiles[this.tileKeys.shift()];
+                    }
+                    return tile;
+                },
+                /**
+                 * Returns the parse trees of both components of the 'function'
+                 * attribute. The x component defaults to the variable itself,
+                 * in which case the plot is 'explicit'.
+                 * 
+                 * @returns {Visitor[]} The parse trees of the x and y component.
+                 */
+                components: function () {
                     if (typeof this["function"].value[0] === 'undefined') {
                         this["function"].value[0] = ExpressionParser.parse(this["variable"].value);
+                        this.explicit = true;
+                        if (this.profiler !== null) {
+                            this.profiler.lap("expression");
+                        }
                     }
-                    var x = this["function"].value[0];
-                    var y = this["function"].value[1];
+                    return this["function"].value;
+                },
+                /**
+                 * Evaluates the 'function' attribute over the domain.
+                 * The coordinates are stored as (x, y) pairs, where the y
+                 * coordinate is already negated. When both components are
+                 * affine in the variable only the ends of the domain are
+                 * evaluated. When the 'period' attribute is set and the domain
+                 * spans at least two periods only the first period is evaluated.
+                 * Both do not apply when the 'distribution' attribute is not
+                 * 'linear', see {@link PathCreator#distribute}.
+                 * 
+                 * @returns {Object} The evaluated 'points', the 'mids' between
+                 *          them when smoothly connected (or null), and the
+                 *          'count' of evaluated samples. For a single period
+                 *          also the number of whole 'periods' in the domain,
+                 *          the number of whole steps of the 'remainder' and the
+                 *          'final' step to the end of the domain (or null).
+                 */
+                evaluate: function () {
+                    var smooth = this["connected"].value === "smooth";
+                    var start = this["domain"].value[0];
+                    var end = this["domain"].value[1];
+                    var count = this.count !== null ? this.count : this["samples"].value;
+                    var step = (end - start) / count;
+                    var functions = this.components();
+                    var x = functions[0];
+                    var y = functions[1];
                     var v = this["variable"].value.substring(1);
+                    if (this["distribution"].value !== "linear") {
+                        return this.sample(x, y, v, this.distribute(count, smooth), count, smooth);
+                    }
+                    if (x.isAffine(v) && y.isAffine(v)) {
+                        var segment = this.ends(x, y, v, start, step, count);
+                        if (segment !== null) {
+                            return segment;
+                        }
+                    }
+                    var period = this["period"].value;
+                    if (period !== null && end - start >= 2 * period) {
+                        var periodCount = Math.max(1, Math.round(period / step));
+                        var periodStep = period / periodCount;
+                        var total = Math.floor((end - start) / periodStep);
+                        var samples = this.sample(x, y, v, linear(start, periodStep, periodCount, smooth),
+                                periodCount, smooth);
+                        samples.periods = Math.floor(total / periodCount);
+                        samples.remainder = total - samples.periods * periodCount;
+                        var last = start + total * periodStep;
+                        samples.final = null;
+                        if (last < end) {
+                            var values = smooth ? [last, end, (last + end) / 2] : [last, end];
+                            samples.final = this.sample(x, y, v, new Float64Array(values), 1, smooth);
+                        }
+                        return samples;
+                    }
+                    return this.sample(x, y, v, linear(start, step, count, smooth), count, smooth);
+                },
+                /**
+                 * Evaluates the 'function' attribute over the domain for all
+                 * values of the 'sweep' attribute's parameter in a single pass,
+                 * see {@link Family}. The samples are the same as when
+                 * evaluating every member as a separate plot, but the periodic
+                 * and compiled evaluations are not used. Affine components do
+                 * not depend on the parameter, so all members then share the
+                 * same segment when the distribution is 'linear'.
+                 * 
+                 * @returns {Object[]} The evaluated samples of every member as
+                 *          returned by {@link PathCreator#evaluate}.
+                 */
+                evaluateFamily: function () {
+                    var smooth = this["connected"].value === "smooth";
+                    var start = this["domain"].value[0];
+                    var end = this["domain"].value[1];
+                    var count = this.count !== null ? this.count : this["samples"].value;
+                    var step = (end - start) / count;
+                    var sweep = this["sweep"].value;
+                    var functions = this.components();
+                    var v = this["variable"].value.substring(1);
+                    var family = [];
+                    if (this["distribution"].value === "linear"
+                            && functions[0].isAffine(v) && functions[1].isAffine(v)) {
+                        var segment = this.ends(functions[0], functions[1], v, start, step, count);
+                        if (segment !== null) {
+                            for (var n = 0; n < sweep.values.length; n++) {
+                                family.push(segment);
+                            }
+                            return family;
+                        }
+                    }
+                    return this.sampleFamily(this.positions(count, smooth), count, smooth);
+                },
+                /**
+                 * Evaluates the 'function' attribute at the given variable
+                 * values for all values of the 'sweep' attribute's parameter.
+                 * 
+                 * @param {Float64Array} values The variable values as expected
+                 *                              by {@link PathCreator#sample}.
+                 * @param {Integer} count The number of steps.
+                 * @param {Boolean} smooth Whether or not to evaluate the mids.
+                 * @returns {Object[]} The evaluated samples of every member as
+                 *          returned by {@link PathCreator#evaluate}.
+                 */
+                sampleFamily: function (values, count, smooth) {
+                    var sweep = this["sweep"].value;
+                    var functions = this.components();
+                    var v = this["variable"].value.substring(1);
+                    var x = functions[0].family(sweep.name, sweep.values);
+                    var y = functions[1].family(sweep.name, sweep.values);
+                    var family = [];
+                    for (var m = 0; m < sweep.values.length; m++) {
+                        family.push({
+                            points: new Float64Array(2 * (count + 1)),
+                            mids: smooth ? new Float64Array(2 * count) : null,
+                            count: smooth ? 2 * count + 1 : count + 1
+                        });
+                    }
+                    var vars = {};
+                    for (var i = 0; i < values.length; i++) {
+                        vars[v] = values[i];
+                        if (i <= count) {
+                            place(family, "points", 2 * i, x.visit(vars), y.visit(vars));
+                        } else {
+                            place(family, "mids", 2 * (i - count - 1), x.visit(vars), y.visit(vars));
+                        }
+                    }
+                    return family;
+                },
+                /**
+                 * Evaluates both components of the 'function' attribute at
+                 * the given variable values.
+                 * 
+                 * @param {Visitor} x The parse tree of the x component.
+                 * @param {Visitor} y The parse tree of the y component.
+                 * @param {String} v The variable name (without '#').
+                 * @param {Float64Array} values The count + 1 variable values of
+                 *                              the samples, followed by those
+                 *                              of the count mids when smooth.
+                 * @param {Integer} count The number of steps.
+                 * @param {Boolean} smooth Whether or not to evaluate the mids.
+                 * @returns {Object} The evaluated samples as returned by
+                 *          {@link PathCreator#evaluate}.
+                 */
+                sample: function (x, y, v, values, count, smooth) {
+                    var scale = 1; // May be useful later.
+                    var points = new Float64Array(2 * (count + 1));
+                    var mids = smooth ? new Float64Array(2 * count) : null;
+                    var compiled = this["backend"].value === "wasm" ? this.compile(x, y, v) : null;
+                    var xs = compiled === null ? null : compiled[0].evaluate(values);
+                    var ys = compiled === null ? null : compiled[1].evaluate(values);
+                    var vars = {};
+                    for (var k = 0; k < values.length; k++) {
+                        var target = k <= count ? points : mids;
+                        var index = k <= count ? 2 * k : 2 * (k - count - 1);
+                        if (compiled !== null) {
+                            target[index] = scale * xs[k];
+                            target[index + 1] = -scale * ys[k];
+                        } else {
+                            vars[v] = values[k];
+                            target[index] = scale * x.visit(vars);
+                            target[index + 1] = -scale * y.visit(vars);
+                        }
+                    }
+                    return {
+                        points: points,
+                        mids: mids,
+                        count: values.length
+                    };
+                },
+                /**
+                 * Returns the variable values of the samples over the domain,
+                 * either in equal steps or according to the 'distribution'
+                 * attribute.
+                 * 
+                 * @param {Integer} count The number of steps.
+                 * @param {Boolean} smooth Whether or not to add the mids.
+                 * @returns {Float64Array} The values as expected by
+                 *          {@link PathCreator#sample}.
+                 */
+                positions: function (count, smooth) {
+                    if (this["distribution"].value !== "linear") {
+                        return this.distribute(count, smooth);
+                    }
+                    var start = this["domain"].value[0];
+                    var end = this["domain"].value[1];
+                    return linear(start, (end - start) / count, count, smooth);
+                },
+                /**
+                 * Returns the variable values of the samples according to the
+                 * 'distribution' attribute. Every value is computed from the
+                 * relative index of its sample, not accumulated from the
+                 * previous one, so any range of samples can be computed on
+                 * its own.
+                 * The 'log' distribution is spaced geometrically, the
+                 * 'chebyshev' distribution is denser near the ends of the
+                 * domain and an expression maps the relative index '#t' to the
+                 * relative position in the domain.
+                 * 
+                 * @param {Integer} count The number of steps.
+                 * @param {Boolean} smooth Whether or not to add the mids.
+                 * @returns {Float64Array} The values as expected by
+                 *          {@link PathCreator#sample}.
+                 */
+                distribute: function (count, smooth) {
+                    var start = this["domain"].value[0];
+                    var end = this["domain"].value[1];
+                    var distribution = this["distribution"].value;
+                    var values = new Float64Array(smooth ? 2 * count + 1 : count + 1);
+                    for (var i = 0; i <= count; i++) {
+                        values[i] = position(distribution, start, end, i / count);
+                    }
+                    if (smooth) {
+                        for (var j = 0; j < count; j++) {
+                            values[count + j + 1] = position(distribution, start, end, (j + 0.5) / count);
+                        }
+                    }
+                    if (typeof distribution === 'string') {
+                        values[0] = start;
+                        values[count] = end;
+                    }
+                    return values;
+                },
+                /**
+                 * Evaluates an affine 'function' attribute at the ends of the
+                 * domain only, since the samples in between lie on the segment
+                 * between them. The end is reached by the same steps as when
+                 * evaluating all the samples.
+                 * 
+                 * @param {Visitor} x The parse tree of the x component.
+                 * @param {Visitor} y The parse tree of the y component.
+                 * @param {String} v The variable name (without '#').
+                 * @param {Number} start The begin of the domain.
+                 * @param {Number} step The step between the samples.
+                 * @param {Integer} count The number of steps.
+                 * @returns {Object} The two evaluated samples as returned by
+                 *          {@link PathCreator#evaluate}, or null when they
+                 *          are not finite.
+                 */
+                ends: function (x, y, v, start, step, count) {
+                    var scale = 1; // May be useful later.
                     var vars = {};
                     var value = start;
+                    var points = new Float64Array(4);
                     vars[v] = value;
-                    var point = [scale * x.visit(vars), -scale * y.visit(vars)];
-                    var path = 'M' + point[0] + ',' + point[1];
+                    points[0] = scale * x.visit(vars);
+                    points[1] = -scale * y.visit(vars);
                     for (var i = 0; i < count; i++) {
                         value += step;
-                        vars[v] = value;
+                    }
+                    vars[v] = value;
+                    points[2] = scale * x.visit(vars);
+                    points[3] = -scale * y.visit(vars);
+                    for (var j = 0; j < points.length; j++) {
+                        if (!isFinite(points[j])) {
+                            return null;
+                        }
+                    }
+                    return {
+                        points: points,
+                        mids: null,
+                        count: 2
+                    };
+                },
+                /**
+                 * Compiles both components of the 'function' attribute into
+                 * WebAssembly modules. The result is kept, since the components
+                 * are evaluated again for every tile of a 'zoom' plot.
+                 * 
+                 * @param {Visitor} x The parse tree of the x component.
+                 * @param {Visitor} y The parse tree of the y component.
+                 * @param {String} variable The variable name (without '#').
+                 * @returns {CompiledExpression[]} The compiled components, or null
+                 *          when either one cannot be compiled.
+                 */
+                compile: function (x, y, variable) {
+                    if (typeof this.compiled === 'undefined') {
+                        var cx = ExpressionCompiler.compile(x, variable);
+                        var cy = cx === null ? null : ExpressionCompiler.compile(y, variable);
+                        this.compiled = cy === null ? null : [cx, cy];
+                    }
+                    return this.compiled;
+                },
+                /**
+                 * Serialises the evaluated coordinates into path data.
+                 * 
+                 * @param {Object} samples The samples as returned by {@link PathCreator#evaluate}.
+                 * @returns {String} The path data.
+                 */
+                serialize: function (samples) {
+                    if (typeof samples.periods !== 'undefined') {
+                        return this.tile(samples);
+                    }
+                    var points = samples.points;
+                    var mids = samples.mids;
+                    var token = mids === null ? 'L' : 'S';
+                    var path = 'M' + points[0] + ',' + points[1];
+                    for (var i = 2; i < points.length; i += 2) {
                         path += token;
-                        point = [scale * x.visit(vars), -scale * y.visit(vars)];
-                        if (token === 'S') {
-                            vars[v] = value - step / 2;
-                            var mid = [scale * x.visit(vars), -scale * y.visit(vars)];
-                            path += mid[0] + ',' + mid[1] + ' ';
+                        if (mids !== null) {
+                            path += mids[i - 2] + ',' + mids[i - 1] + ' ';
                         }
-                        path += point[0] + ',' + point[1];
+                        path += points[i] + ',' + points[i + 1];
                     }
-                    this.pathElement.setAttribute("d", path);
+                    return path;
+                },
+                /**
+                 * Serialises a single evaluated period into path data that
+                 * repeats it over the domain. The first command of each period
+                 * is absolute, translated over the period's offset, and the
+                 * others are relative, so they are the same for every period.
+                 * The path ends with the final step to the end of the domain.
+                 * 
+                 * @param {Object} samples The samples as returned by {@link PathCreator#evaluate}.
+                 * @returns {String} The path data.
+                 */
+                tile: function (samples) {
+                    var points = samples.points;
+                    var mids = samples.mids;
+                    var last = points.length / 2 - 1;
+                    var dx = points[2 * last] - points[0];
+                    var dy = points[2 * last + 1] - points[1];
+                    var relative = [];
+                    for (var i = 2; i <= last; i++) {
+                        relative.push(command(points, mids, i, true, 0, 0));
+                    }
+                    var rest = relative.join('');
+                    var path = ['M' + points[0] + ',' + points[1]];
+                    for (var k = 0; k < samples.periods; k++) {
+                        path.push(command(points, mids, 1, false, k * dx, k * dy), rest);
+                    }
+                    if (samples.remainder > 0) {
+                        path.push(command(points, mids, 1, false, k * dx, k * dy));
+                        path.push(relative.slice(0, samples.remainder - 1).join(''));
+                    }
+                    if (samples.final !== null) {
+                        path.push(command(samples.final.points, samples.final.mids, 1, false, 0, 0));
+                    }
+                    return path.join('');
+                }
+            };
+
+            /**
+             * Returns the variable values of the given number of equal steps
+             * from the start value, as expected by {@link PathCreator#sample}.
+             * 
+             * @param {Number} start The first variable value.
+             * @param {Number} step The step between the samples.
+             * @param {Integer} count The number of steps.
+             * @param {Boolean} smooth Whether or not to add the mids.
+             * @returns {Float64Array} The variable values.
+             */
+            function linear(start, step, count, smooth) {
+                var values = new Float64Array(smooth ? 2 * count + 1 : count + 1);
+                var value = start;
+                values[0] = value;
+                for (var i = 0; i < count; i++) {
+                    value += step;
+                    values[i + 1] = value;
+                    if (smooth) {
+                        values[count + i + 1] = value - step / 2;
+                    }
+                }
+                return values;
+            }
+
+            /**
+             * Returns the variable value at the given relative index of a
+             * distribution, see {@link PathCreator#distribute}.
+             * 
+             * @param {Object} distribution The 'distribution' attribute value.
+             * @param {Number} start The begin of the domain.
+             * @param {Number} end The end of the domain.
+             * @param {Number} t The relative index, from 0 to 1.
+             * @returns {Number} The variable value.
+             */
+            function position(distribution, start, end, t) {
+                switch (distribution) {
+                    case "log":
+                        return start * Math.pow(end / start, t);
+                    case "chebyshev":
+                        return (start + end) / 2 - (end - start) / 2 * Math.cos(Math.PI * t);
+                    default:
+                        return start + (end - start) * distribution.visit({t: t});
+                }
+            }
+
+            /**
+             * Stores the coordinates of a sample of all members of a family,
+             * see {@link PathCreator#evaluateFamily}.
+             * 
+             * @param {Object[]} family The samples of the members.
+             * @param {String} target The array to store in: 'points' or 'mids'.
+             * @param {Integer} index The index of the x coordinate in the array.
+             * @param {Object[]} xs The x coordinates of the members.
+             * @param {Object[]} ys The y coordinates of the members.
+             */
+            function place(family, target, index, xs, ys) {
+                for (var m = 0; m < family.length; m++) {
+                    var array = family[m][target];
+                    array[index] = xs[m];
+                    array[index + 1] = -ys[m];
+                }
+            }
+
+            /**
+             * Creates the path command that ends at the given sample.
+             * 
+             * @param {Float64Array} points The evaluated points.
+             * @param {Float64Array} mids The evaluated mids, or null.
+             * @param {Integer} i The index of the sample (at least 1).
+             * @param {Boolean} relative Whether the command is relative to the
+             *                           previous sample or absolute.
+             * @param {Number} dx The x offset of an absolute command.
+             * @param {Number} dy The y offset of an absolute command.
+             * @returns {String} The path command.
+             */
+            function command(points, mids, i, relative, dx, dy) {
+                var bx = relative ? points[2 * i - 2] : -dx;
+                var by = relative ? points[2 * i - 1] : -dy;
+                var result = mids === null ? 'L' : 'S';
+                if (relative) {
+                    result = result.toLowerCase();
+                }
+                if (mids !== null) {
+                    result += (mids[2 * i - 2] - bx) + ',' + (mids[2 * i - 1] - by) + ' ';
+                }
+                return result + (points[2 * i] - bx) + ',' + (points[2 * i + 1] - by);
+            }
+
+            /**
+             * Returns the current time in milliseconds.
+             * 
+             * @returns {Number} The current (high resolution) time.
+             */
+            function now() {
+                if (window.performance && typeof window.performance.now === 'function') {
+                    return window.performance.now();
+                }
+                return new Date().getTime();
+            }
+
+            /**
+             * @class The Profile records the time spent in each stage of
+             *        converting a single SVGPlotElement.
+             * @name Profile
+             * @property {Object.<String, Number>} stages The duration (in milliseconds)
+             *           of each stage.
+             * @property {Number} samples The number of evaluated samples.
+             * @property {Number} length The length of the path data.
+             * @property {Number} time The time the last stage ended.
+             */
+            function Profile() {
+                this.stages = {};
+                for (var i = 0; i < STAGES.length; i++) {
+                    this.stages[STAGES[i]] = 0;
+                }
+                this.samples = 0;
+                this.length = 0;
+                this.time = now();
+            }
+
+            /**
+             * @lends Profile
+             */
+            Profile.prototype = {
+                /**
+                 * Ends the given stage, adding the time since the previous
+                 * stage ended to its duration.
+                 * 
+                 * @param {String} stage The stage name.
+                 */
+                lap: function (stage) {
+                    var time = now();
+                    this.stages[stage] += time - this.time;
+                    this.time = time;
+                }
+            };
+
+            /**
+             * The stages of converting an SVGPlotElement: parsing the attributes,
+             * parsing the expressions, evaluating the samples, serialising the
+             * path data and changing the document.
+             * 
+             * @constant
+             * @type String[]
+             */
+            var STAGES = ["attributes", "expression", "evaluation", "serialization", "dom"];
+
+            /**
+             * The upper bounds (in milliseconds) of the histogram buckets.
+             * 
+             * @constant
+             * @type Number[]
+             */
+            var BUCKETS = [0.1, 0.2, 0.5, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, Infinity];
+
+            /**
+             * Indicates whether or not all SVGPlotElements are profiled.
+             * 
+             * @type Boolean
+             */
+            var profiling = false;
+
+            /**
+             * The aggregated profiles: the number of profiled plots, and per
+             * stage the total duration and the histogram of durations.
+             * 
+             * @type Object
+             */
+            var statistics;
+
+            /**
+             * Clears the aggregated profiles.
+             */
+            function resetStatistics() {
+                statistics = {count: 0, samples: 0, length: 0, stages: {}};
+                for (var i = 0; i < STAGES.length; i++) {
+                    var buckets = [];
+                    for (var j = 0; j < BUCKETS.length; j++) {
+                        buckets.push(0);
+                    }
+                    statistics.stages[STAGES[i]] = {total: 0, max: 0, buckets: buckets};
+                }
+            }
+
+            resetStatistics();
+
+            /**
+             * Adds the given profile to the aggregated profiles and dispatches
+             * a 'plotprofile' event on the SVGPathElement. The event's detail
+             * holds the number of samples, the path data length and the stage
+             * durations.
+             * 
+             * @param {Profile} profile The profile of the conversion.
+             * @param {Element} pathElement The converted SVGPathElement.
+             */
+            function report(profile, pathElement) {
+                statistics.count++;
+                statistics.samples += profile.samples;
+                statistics.length += profile.length;
+                for (var i = 0; i < STAGES.length; i++) {
+                    var duration = profile.stages[STAGES[i]];
+                    var stage = statistics.stages[STAGES[i]];
+                    stage.total += duration;
+                    stage.max = Math.max(stage.max, duration);
+                    var bucket = 0;
+                    while (duration > BUCKETS[bucket]) {
+                        bucket++;
+                    }
+                    stage.buckets[bucket]++;
+                }
+                var detail = {
+                    samples: profile.samples,
+                    length: profile.length,
+                    stages: profile.stages
+                };
+                var event = document.createEvent("CustomEvent");
+                event.initCustomEvent("plotprofile", true, false, detail);
+                pathElement.dispatchEvent(event);
+            }
+
+            /**
+             * The number of device pixels per sample for 'auto' samples.
+             * 
+             * @constant
+             * @type Number
+             */
+            var PIXELS_PER_SAMPLE = 2;
+
+            /**
+             * The minimum number of 'auto' samples.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var MIN_SAMPLES = 8;
+
+            /**
+             * The maximum number of 'auto' samples.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var MAX_SAMPLES = 2000;
+
+            /**
+             * The number of samples per tile of a 'zoom' plot.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var TILE_SAMPLES = 32;
+
+            /**
+             * The highest tile level of a 'zoom' plot.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var MAX_LEVEL = 24;
+
+            /**
+             * The maximum number of visible tiles of a 'zoom' plot.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var MAX_TILES = 256;
+
+            /**
+             * The maximum number of cached tiles per 'zoom' plot.
+             * 
+             * @constant
+             * @type Integer
+             */
+            var TILE_CACHE_SIZE = 512;
+
+            /**
+             * The relative change of the number of 'auto' samples for which a
+             * rendered plot is re-sampled.
+             * 
+             * @constant
+             * @type Number
+             */
+            var RESAMPLE_THRESHOLD = 0.25;
+
+            /**
+             * The time (in milliseconds) spent on creating the segments of a
+             * 'segment' plot per animation frame.
+             * 
+             * @constant
+             * @type Number
+             */
+            var SEGMENT_BUDGET = 8;
+
+            /**
+             * The PathCreators of the plots with 'auto' samples, the 'zoom'
+             * plots and the loaded 'src' plots.
+             * 
+             * @type PathCreator[]
+             */
+            var trackedPlots = [];
+
+            /**
+             * The MutationObserver of the 'viewBox' and 'transform' attributes,
+             * or null when not observing.
+             * 
+             * @type MutationObserver
+             */
+            var mutationObserver = null;
+
+            /**
+             * The pending animation frame request, or 0 when no refresh is scheduled.
+             * 
+             * @type Number
+             */
+            var refreshFrame = 0;
+
+            /**
+             * Schedules a refresh of the tracked plots on the next animation frame.
+             */
+            function scheduleRefresh() {
+                if (refreshFrame === 0) {
+                    refreshFrame = typeof window.requestAnimationFrame === 'function'
+                            ? window.requestAnimationFrame(refresh) : window.setTimeout(refresh, 16);
+                }
+            }
+
+            /**
+             * Tracks the given plot with 'auto' samples, 'zoom' plot or loaded
+             * 'src' plot. The plots are refreshed when the window is resized,
+             * a document is scaled by the DocumentScaler, or a 'viewBox' or
+             * 'transform' attribute changes.
+             * 
+             * @param {PathCreator} creator The PathCreator of the plot.
+             */
+            function track(creator) {
+                if (trackedPlots.length === 0) {
+                    window.addEventListener("resize", scheduleRefresh, false);
+                    document.addEventListener("documentscaled", scheduleRefresh, false);
+                    if (typeof window.MutationObserver === 'function') {
+                        mutationObserver = new window.MutationObserver(scheduleRefresh);
+                        mutationObserver.observe(document.documentElement, {
+                            attributes: true,
+                            subtree: true,
+                            attributeFilter: ["viewBox", "transform"]
+                        });
+                    }
+                }
+                creator.profiler = null;
+                trackedPlots.push(creator);
+            }
+
+            /**
+             * Updates the tracked plots to their current on-screen size, see
+             * {@link PathCreator#update}. All plots are measured first and
+             * then written, so the layout is computed only once. Plots removed
+             * from the document are no longer tracked, nor kept as dependents
+             * of parameters.
+             */
+            function refresh() {
+                refreshFrame = 0;
+                prune();
+                var measurements = [];
+                for (var i = 0; i < trackedPlots.length; i++) {
+                    measurements.push(attached(trackedPlots[i].pathElement) ? trackedPlots[i].measure() : -1);
+                }
+                var plots = trackedPlots;
+                trackedPlots = [];
+                for (var i = 0; i < plots.length; i++) {
+                    if (measurements[i] !== -1) {
+                        trackedPlots.push(plots[i]);
+                        plots[i].update(measurements[i], false);
+                    }
+                }
+                if (trackedPlots.length === 0 && plots.length > 0) {
+                    window.removeEventListener("resize", scheduleRefresh, false);
+                    document.removeEventListener("documentscaled", scheduleRefresh, false);
+                    if (mutationObserver !== null) {
+                        mutationObserver.disconnect();
+                        mutationObserver = null;
+                    }
+                }
+            }
+
+            /**
+             * Finds the outermost SVGSVGElement of the given element.
+             * 
+             * @param {Element} element The element.
+             * @returns {Element} The outermost SVGSVGElement.
+             */
+            function outermost(element) {
+                var svg = element;
+                while (svg.ownerSVGElement) {
+                    svg = svg.ownerSVGElement;
+                }
+                return svg;
+            }
+
+            /**
+             * The PathCreators of the rendered plots by the names of the
+             * parameters they depend on.
+             * 
+             * @type Object
+             */
+            var dependents = {};
+
+            /**
+             * The PathCreators of the plots to be re-evaluated, because a
+             * parameter they depend on changed.
+             * 
+             * @type PathCreator[]
+             */
+            var changedPlots = [];
+
+            /**
+             * The pending animation frame request, or 0 when no re-evaluation
+             * is scheduled.
+             * 
+             * @type Number
+             */
+            var parameterFrame = 0;
+
+            /**
+             * Registers the given plot as a dependent of the parameters its
+             * 'function' attribute refers to, i.e. all variables except the
+             * plot's own variable and the parameter of its 'sweep' attribute.
+             * 
+             * @param {PathCreator} creator The PathCreator of the plot.
+             */
+            function depend(creator) {
+                var variable = creator["variable"].value.substring(1);
+                var sweep = creator["sweep"].value === null ? variable : creator["sweep"].value.name;
+                var functions = creator.components();
+                var names = {};
+                for (var i = 0; i < functions.length; i++) {
+                    var variables = functions[i].variables();
+                    for (var j = 0; j < variables.length; j++) {
+                        var name = variables[j];
+                        if (name !== variable && name !== sweep && !names.hasOwnProperty(name)) {
+                            names[name] = true;
+                            if (!dependents.hasOwnProperty(name)) {
+                                dependents[name] = [];
+                            }
+                            dependents[name].push(creator);
+                        }
+                    }
+                }
+            }
+
+            /**
+             * Removes the plots that are no longer in the document from the
+             * dependents of all parameters, so their PathCreators, elements
+             * and tiles are not kept. This is done once per parameter update
+             * frame and on every refresh.
+             */
+            function prune() {
+                for (var name in dependents) {
+                    if (dependents.hasOwnProperty(name)) {
+                        var plots = dependents[name];
+                        var kept = [];
+                        for (var i = 0; i < plots.length; i++) {
+                            if (attached(plots[i].pathElement)) {
+                                kept.push(plots[i]);
+                            }
+                        }
+                        if (kept.length > 0) {
+                            dependents[name] = kept;
+                        } else {
+                            delete dependents[name];
+                        }
+                    }
+                }
+            }
+
+            /**
+             * Re-evaluates the plots depending on the changed parameters. The
+             * parse trees (and compiled components) of the plots are reused;
+             * the cached tiles of 'zoom' plots are dropped. Plots removed from
+             * the document are skipped.
+             */
+            function reevaluate() {
+                parameterFrame = 0;
+                var plots = changedPlots;
+                changedPlots = [];
+                for (var i = 0; i < plots.length; i++) {
+                    var creator = plots[i];
+                    creator.changed = false;
+                    if (!attached(creator.pathElement)) {
+                        continue;
+                    }
+                    creator.profiler = null;
+                    creator.tiles = {};
+                    creator.tileKeys = [];
+                    if (creator.view !== null) {
+                        creator.createTiledPath();
+                    } else {
+                        creator.createPath();
+                    }
+                }
+            }
+
+            /**
+             * Determines whether or not the given node is part of the document.
+             * 
+             * @param {Node} node The node.
+             * @returns {Boolean} Whether or not the node is in the document.
+             */
+            function attached(node) {
+                while (node.parentNode) {
+                    node = node.parentNode;
+                }
+                return node === document;
+            }
+
+            /**
+             * @class A DataSeries plots appended (x, y) data instead of a
+             *        function. It holds the last 'capacity' points in a ring
+             *        buffer. The path data is updated once per animation frame
+             *        for all the points appended in that frame.
+             *        Each point is serialised once, into chunks of about the
+             *        square root of the capacity. Until the buffer is full the
+             *        path data is only extended. After that it is the rest of
+             *        the oldest chunk followed by the text of the later chunks,
+             *        which is kept up to date and only cut when a chunk
+             *        expires, so no chunks are joined per frame. Cutting is
+             *        amortised O(sqrt(capacity)) per point; the browser still
+             *        parses the whole path data on every update.
+             * @name DataSeries
+             * @param {Element} pathElement The SVGPathElement showing the series.
+             * @param {Integer} capacity The maximum number of points.
+             * @property {Element} pathElement The SVGPathElement showing the series.
+             * @property {Integer} capacity The maximum number of points.
+             * @property {Float64Array} xs The ring buffer of x coordinates.
+             * @property {Float64Array} ys The ring buffer of y coordinates.
+             * @property {Integer} head The ring buffer index of the oldest point.
+             * @property {Integer} size The number of points in the ring buffer.
+             * @property {Integer} total The number of points ever appended.
+             * @property {Integer} chunkSize The number of points per chunk.
+             * @property {Object[]} chunks The chunks holding the serialised
+             *                             points: the 'first' point's number,
+             *                             the 'text' and the 'offsets' of the
+             *                             points in the text.
+             * @property {String} tail The text of all but the oldest chunk.
+             * @property {String} path The current path data.
+             * @property {String} appended The serialised points appended since
+             *                             the last update.
+             * @property {Boolean} rolled Whether or not points were dropped
+             *                            since the last update.
+             * @property {Boolean} scheduled Whether or not an update is scheduled.
+             */
+            function DataSeries(pathElement, capacity) {
+                this.pathElement = pathElement;
+                this.capacity = capacity;
+                this.xs = new Float64Array(capacity);
+                this.ys = new Float64Array(capacity);
+                this.head = 0;
+                this.size = 0;
+                this.total = 0;
+                this.chunkSize = Math.ceil(Math.sqrt(capacity));
+                this.chunks = [];
+                this.tail = "";
+                this.path = "";
+                this.appended = "";
+                this.rolled = false;
+                this.scheduled = false;
+            }
+
+            /**
+             * @lends DataSeries
+             */
+            DataSeries.prototype = {
+                /**
+                 * Appends a point to the series.
+                 * 
+                 * @param {Number} x The x coordinate.
+                 * @param {Number} y The y coordinate.
+                 */
+                append: function (x, y) {
+                    this.push(x, y);
+                    this.schedule();
+                },
+                /**
+                 * Appends a batch of points to the series.
+                 * 
+                 * @param {Float64Array} xs The x coordinates.
+                 * @param {Float64Array} ys The y coordinates.
+                 */
+                appendBatch: function (xs, ys) {
+                    for (var i = 0; i < xs.length; i++) {
+                        this.push(xs[i], ys[i]);
+                    }
+                    this.schedule();
+                },
+                /**
+                 * Removes all the points from the series.
+                 */
+                clear: function () {
+                    this.head = 0;
+                    this.size = 0;
+                    this.chunks = [];
+                    this.tail = "";
+                    this.path = "";
+                    this.appended = "";
+                    this.rolled = false;
+                    this.pathElement.removeAttribute("d");
+                },
+                /**
+                 * Stores a point in the ring buffer, dropping the oldest point
+                 * when it is full, and serialises it into the last chunk.
+                 * 
+                 * @param {Number} x The x coordinate.
+                 * @param {Number} y The y coordinate.
+                 */
+                push: function (x, y) {
+                    var index = (this.head + this.size) % this.capacity;
+                    if (this.size === this.capacity) {
+                        this.head = (this.head + 1) % this.capacity;
+                        this.rolled = true;
+                    } else {
+                        this.size++;
+                    }
+                    this.xs[index] = x;
+                    this.ys[index] = y;
+                    var segment = 'L' + x + ',' + (-y);
+                    var chunk = this.chunks[this.chunks.length - 1];
+                    if (typeof chunk === 'undefined' || chunk.offsets.length === this.chunkSize) {
+                        chunk = {first: this.total, text: "", offsets: []};
+                        this.chunks.push(chunk);
+                    }
+                    chunk.offsets.push(chunk.text.length);
+                    chunk.text += segment;
+                    if (chunk !== this.chunks[0]) {
+                        this.tail += segment;
+                    }
+                    this.appended += segment;
+                    this.total++;
+                },
+                /**
+                 * Schedules the update of the path data at the next animation frame.
+                 */
+                schedule: function () {
+                    if (!this.scheduled) {
+                        this.scheduled = true;
+                        var self = this;
+                        var callback = function () {
+                            self.flush();
+                        };
+                        if (typeof window.requestAnimationFrame === 'function') {
+                            window.requestAnimationFrame(callback);
+                        } else {
+                            window.setTimeout(callback, 16);
+                        }
+                    }
+                },
+                /**
+                 * Updates the path data with the appended points. This is
+                 * done automatically at the next animation frame.
+                 */
+                flush: function () {
+                    this.scheduled = false;
+                    if (this.rolled) {
+                        var oldest = this.total - this.size;
+                        while (this.chunks[0].first + this.chunks[0].offsets.length <= oldest) {
+                            this.chunks.shift();
+                            this.tail = this.tail.substring(this.chunks[0].text.length);
+                        }
+                        var first = this.chunks[0];
+                        this.path = 'M' + first.text.substring(first.offsets[oldest - first.first] + 1) + this.tail;
+                    } else if (this.appended.length === 0) {
+                        return;
+                    } else if (this.path.length === 0) {
+                        this.path = 'M' + this.appended.substring(1);
+                    } else {
+                        this.path += this.appended;
+                    }
+                    this.appended = "";
+                    this.rolled = false;
+                    this.pathElement.setAttribute("d", this.path);
                 }
             };
 
+            /**
+             * Converts the given SVGPlotElement without changing the document:
+             * the attributes are parsed and, unless the plot is measured once
+             * it is rendered, the path data is created.
+             * 
+             * @param {Element} plotElement The SVGPlotElement being handled.
+             * @throws {NotFoundError} When neither the 'function', 'series'
+             *                         nor 'src' attribute is set.
+             * @throws {ParseError} When the 'distribution' attribute is 'log'
+             *                      and the domain is not positive.
+             * @returns {PathCreator} The conversion.
+             */
+            function convert(plotElement) {
+                var profile = profiling || plotElement.getAttribute("profile") === "true";
+                var creator = new PathCreator(profile ? new Profile() : null);
+                creator.parseSVGPlotElement(plotElement);
+                var capacity = creator["series"].value;
+                var source = creator["src"].value;
+                if (capacity === null && source === null && !creator["function"].set) {
+                    var error = new Error("Function not set: " + toString(plotElement));
+                    error.name = "NotFoundError";
+                    throw error;
+                }
+                if (creator["distribution"].value === "log" && creator["domain"].value[0] <= 0) {
+                    var error = new Error("Invalid log domain: " + creator["domain"].value.join(':'));
+                    error.name = "ParseError";
+                    throw error;
+                }
+                if (capacity !== null) {
+                    creator.pathElement.dataSeries = new DataSeries(creator.pathElement, capacity);
+                } else if (source !== null) {
+                    creator.loadPath();
+                } else if (!automatic(creator)) {
+                    creator.createPath();
+                }
+                return creator;
+            }
+
+            /**
+             * Indicates whether or not the path data of the given plot is
+             * created once it is rendered, from its on-screen size.
+             * 
+             * @param {PathCreator} creator The PathCreator of the plot.
+             * @returns {Boolean} Whether or not the plot is measured.
+             */
+            function automatic(creator) {
+                return creator["series"].value === null && creator["src"].value === null
+                        && (creator["samples"].value === "auto" || creator.tiled());
+            }
+
+            /**
+             * Commits the given conversions to the document. All writes are
+             * done before any layout is read: first the children of every
+             * SVGPlotElement are moved into its SVGPathElement, then the
+             * SVGPlotElements are replaced. Adjacent SVGPlotElements are
+             * replaced together by inserting a DocumentFragment holding their
+             * SVGPathElements. Then all the measured plots are measured at
+             * once, and only then their path data is created.
+             * 
+             * @param {PathCreator[]} creators The conversions, in document order.
+             */
+            function commit(creators) {
+                var i;
+                var creator;
+                var begin = now();
+                for (i = 0; i < creators.length; i++) {
+                    creator = creators[i];
+                    if (creator.profiler !== null) {
+                        creator.profiler.time = begin;
+                    }
+                    var plotElement = creator.plotElement;
+                    while (plotElement.firstChild) {
+                        creator.pathElement.appendChild(plotElement.removeChild(plotElement.firstChild));
+                    }
+                }
+                for (i = 0; i < creators.length; ) {
+                    var first = creators[i].plotElement;
+                    var parent = first.parentNode;
+                    var end = i + 1;
+                    while (parent && end < creators.length
+                            && creators[end].plotElement === creators[end - 1].plotElement.nextElementSibling) {
+                        end++;
+                    }
+                    if (parent && end - i === 1) {
+                        parent.replaceChild(creators[i].pathElement, first);
+                    } else if (parent) {
+                        var fragment = document.createDocumentFragment();
+                        for (var j = i; j < end; j++) {
+                            fragment.appendChild(creators[j].pathElement);
+                        }
+                        parent.insertBefore(fragment, first);
+                        for (var k = i; k < end; k++) {
+                            parent.removeChild(creators[k].plotElement);
+                        }
+                    }
+                    i = end;
+                }
+                var measurements = [];
+                for (i = 0; i < creators.length; i++) {
+                    measurements.push(automatic(creators[i]) ? creators[i].measure() : null);
+                }
+                for (i = 0; i < creators.length; i++) {
+                    creator = creators[i];
+                    if (automatic(creator)) {
+                        creator.update(measurements[i], true);
+                    }
+                    if (creator.profiler !== null) {
+                        creator.profiler.lap("dom");
+                        report(creator.profiler, creator.pathElement);
+                    }
+                    if (automatic(creator) && typeof creator.pathElement.getScreenCTM === 'function') {
+                        track(creator);
+                    }
+                    if (creator["series"].value === null && creator["src"].value === null) {
+                        depend(creator);
+                    }
+                }
+            }
+
+            /**
+             * Converts and commits the given SVGPlotElements, see
+             * {@link SVGPlotter#handleAll}.
+             * 
+             * @param {Element[]} plotElements The SVGPlotElements being handled.
+             * @returns {Element[]} The converted SVGPathElements.
+             */
+            function handleAll(plotElements) {
+                var creators = [];
+                try {
+                    for (var i = 0; i < plotElements.length; i++) {
+                        creators.push(convert(plotElements[i]));
+                    }
+                } finally {
+                    commit(creators);
+                }
+                var paths = [];
+                for (var j = 0; j < creators.length; j++) {
+                    paths.push(creators[j].pathElement);
+                }
+                return paths;
+            }
+
             /**
              * Convenience method to stringify a document node.
              * This results in a string showing the tagName and the attributes.
@@ -144,23 +1688,137 @@ SVGModule.define(
                 /**
                  * The SVGPlotter's handle method.
                  * 
+                 * When the 'series' attribute is set the SVGPlotElement is
+                 * converted into a data series, see {@link SVGPlotter#series},
+                 * and the 'function' attribute is not used. Neither is it when
+                 * the 'src' attribute is set, the path data is then created
+                 * from the dataset once it is loaded.
+                 * When the 'sweep' attribute is set the path holds a subpath for
+                 * every value of the swept parameter.
+                 * When the 'segment' attribute is set the plot is converted into
+                 * an SVGGElement holding the path segments instead, see
+                 * {@link PathCreator#createSegments}.
+                 * When the 'zoom' attribute is 'true' only the tiles of the
+                 * domain that are visible are evaluated, at the resolution of
+                 * the current zoom, see {@link PathCreator#measure}.
+                 * 
                  * @param {Element} plotElement The SVGPlotElement being handled.
-                 * @throws {NotFoundError} When the 'function' attribute is not set.
+                 * @throws {NotFoundError} When neither the 'function', 'series'
+                 *                         nor 'src' attribute is set.
+                 * @throws {ParseError} When the 'distribution' attribute is 'log'
+                 *                      and the domain is not positive.
                  * @returns {Element} The converted SVGPathElement
                  */
                 handle: function (plotElement) {
-                    var creator = new PathCreator();
-                    creator.parseSVGPlotElement(plotElement);
-                    if (!creator["function"].set) {
-                        var error = new Error("Function not set: " + toString(plotElement));
-                        error.name = "NotFoundError";
-                        throw error;
+                    return handleAll([plotElement])[0];
+                },
+                /**
+                 * Handles all the given SVGPlotElements, see
+                 * {@link SVGPlotter#handle}, in two phases. First all plots
+                 * are converted without changing the document, then all
+                 * conversions are committed together, see {@link commit}.
+                 * When a plot cannot be converted the plots before it are
+                 * still committed.
+                 * 
+                 * @param {Element[]} plotElements The SVGPlotElements being handled,
+                 *                                 in document order.
+                 * @throws {NotFoundError} When neither the 'function', 'series'
+                 *                         nor 'src' attribute is set.
+                 * @throws {ParseError} When the 'distribution' attribute is 'log'
+                 *                      and the domain is not positive.
+                 * @returns {Element[]} The converted SVGPathElements.
+                 */
+                handleAll: function (plotElements) {
+                    return handleAll(plotElements);
+                },
+                /**
+                 * Sets the value of a document-level parameter, which can be
+                 * referred to as a variable in the 'function' attribute of all
+                 * plots. The rendered plots depending on the parameter are
+                 * re-evaluated on the next animation frame, together with those
+                 * depending on other parameters changed before then.
+                 * 
+                 * @param {String} name The parameter name (without '#').
+                 * @param {Number} value The parameter value.
+                 * @throws {ParseError} When the name is not a valid variable name.
+                 */
+                setParameter: function (name, value) {
+                    ExpressionParser.setParameter(name, value);
+                    if (parameterFrame === 0) {
+                        prune();
                     }
-                    creator.createPath();
-                    if (plotElement.parentNode) {
-                        plotElement.parentNode.replaceChild(creator.pathElement, plotElement);
+                    var plots = dependents.hasOwnProperty(name) ? dependents[name] : [];
+                    for (var i = 0; i < plots.length; i++) {
+                        if (!plots[i].changed) {
+                            plots[i].changed = true;
+                            changedPlots.push(plots[i]);
+                        }
+                    }
+                    if (changedPlots.length > 0 && parameterFrame === 0) {
+                        parameterFrame = typeof window.requestAnimationFrame === 'function'
+                                ? window.requestAnimationFrame(reevaluate) : window.setTimeout(reevaluate, 16);
+                    }
+                },
+                /**
+                 * Returns the value of a document-level parameter.
+                 * 
+                 * @param {String} name The parameter name (without '#').
+                 * @returns {Number} The parameter value, or null when not set.
+                 */
+                getParameter: function (name) {
+                    return ExpressionParser.getParameter(name);
+                },
+                /**
+                 * Re-samples the rendered plots with 'auto' samples whose
+                 * projected on-screen size changed significantly, and updates
+                 * the visible tiles of the 'zoom' plots. This is done
+                 * automatically when the window is resized, a document is
+                 * scaled by the DocumentScaler, or a 'viewBox' or 'transform'
+                 * attribute changes.
+                 */
+                refresh: function () {
+                    refresh();
+                },
+                /**
+                 * Returns the data series of an SVGPathElement converted from
+                 * an SVGPlotElement with the 'series' attribute. Points are
+                 * added by its 'append(x, y)' and 'appendBatch(xs, ys)' methods.
+                 * 
+                 * @param {Element} pathElement The converted SVGPathElement.
+                 * @returns {DataSeries} The data series, or null when the
+                 *          SVGPathElement does not show a data series.
+                 */
+                series: function (pathElement) {
+                    return pathElement.dataSeries || null;
+                },
+                /**
+                 * Enables or disables the profiling of all SVGPlotElements.
+                 * Single SVGPlotElements can be profiled by setting their
+                 * 'profile' attribute to 'true'.
+                 * 
+                 * @param {Boolean} enabled Whether or not to profile all elements.
+                 */
+                profile: function (enabled) {
+                    profiling = enabled === true;
+                },
+                /**
+                 * Returns the aggregated profiles of the converted SVGPlotElements.
+                 * This holds the number of profiled plots, the total number of
+                 * samples and path data length, and for each stage the total
+                 * and maximum duration (in milliseconds) and a histogram.
+                 * The histogram counts the durations up to each of the bucket
+                 * bounds.
+                 * 
+                 * @param {Boolean} reset Whether or not to clear the profiles afterwards.
+                 * @returns {Object} The aggregated profiles.
+                 */
+                statistics: function (reset) {
+                    var result = statistics;
+                    result.buckets = BUCKETS.slice(0);
+                    if (reset === true) {
+                        resetStatistics();
                     }
-                    return creator.pathElement;
+                    return result;
                 }
             };
         }
@@ -30,6 +30,7 @@ package cuenen.raymond.svgplot;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import org.openqa.selenium.Alert;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Capabilities;
@@ -74,6 +75,7 @@ public abstract class AbstractTestClass implements IHookable {
         }
     };
     public static final String MODULE_LOADER = "/ModuleLoader.svg";
+    private static final String STATS_SCRIPT = "return SVGModule.stats();";
     private static final String TITLE_SCRIPT = "document.getElementsByTagName('title')[0].textContent = arguments[0];";
     protected static final String PLACEHOLDER_ID = "placeholder";
     private static final String RESULT_ATTRIBUTE = "result";
@@ -139,6 +141,18 @@ public abstract class AbstractTestClass implements IHookable {
         return placeholder.getAttribute(RESULT_ATTRIBUTE);
     }
 
+    /**
+     * Retrieve the loader statistics, as returned by {@code SVGModule.stats()}.
+     *
+     * @param driver The WebDriver executing the test.
+     * @return The loader statistics, or {@code null} when they are disabled.
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<String, Object> getLoaderStats(WebDriver driver) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        return (Map<String, Object>) js.executeScript(STATS_SCRIPT);
+    }
+
     /**
      * Retrieve the text of an alert window. This method also accepts the alert
      * (pressing OK).
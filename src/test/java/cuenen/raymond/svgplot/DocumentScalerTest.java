@@ -31,11 +31,13 @@ package cuenen.raymond.svgplot;
 import java.awt.geom.Rectangle2D;
 import java.util.HashMap;
 import java.util.Map;
+import org.openqa.selenium.By;
 import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.HasCapabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.Wait;
 import org.testng.annotations.Test;
 import static org.testng.Assert.*;
@@ -48,6 +50,9 @@ import static org.testng.Assert.*;
 public class DocumentScalerTest extends AbstractTestClass {
 
     private static final String MODULE_LOADER_SCALER = "/ModuleLoaderScaler.svg";
+    private static final String MODULE_LOADER_OBSERVER = "/ModuleLoaderScalerObserver.svg";
+    private static final String SCALED_EVENT_FUNCTION = "function(s){document.addEventListener('documentscaled',"
+            + "function(e){setResult(e.target.nodeName);},false);s.scaleTo(document.getElementById('" + PLACEHOLDER_ID + "'));}";
     private static final Rectangle2D BBOX = new Rectangle2D.Double(-1.5, 1.5, 1, 1);
 
     /**
@@ -88,6 +93,48 @@ public class DocumentScalerTest extends AbstractTestClass {
         }
     }
 
+    /**
+     * Test the rescaling of the SVGDocument when the window is resized.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void documentObserverTest(final WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER_OBSERVER, 1);
+        wait.until(RESULT_SET);
+        final String before = getResult(driver);
+        String msg = getMessage(driver);
+        assertEquals(before, driver.findElement(By.tagName("svg")).getAttribute("stroke-width"), msg);
+        Dimension dim = driver.manage().window().getSize();
+        driver.manage().window().setSize(new Dimension(dim.getWidth() / 2, dim.getHeight() / 2));
+        try {
+            wait.until(new ExpectedCondition<Boolean>() {
+
+                @Override
+                public Boolean apply(WebDriver d) {
+                    return !before.equals(getResult(d));
+                }
+            });
+        } finally {
+            driver.manage().window().setSize(dim);
+        }
+        double scale = Double.parseDouble(getResult(driver)) / Double.parseDouble(before);
+        assertTrue(scale > 1, msg + " --> " + scale);
+    }
+
+    /**
+     * Verify the event dispatched after scaling the SVGDocument.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void scaledEventTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        require(driver, SCALED_EVENT_FUNCTION, "DocumentScaler");
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "svg", getMessage(driver));
+    }
+
     private Rectangle2D getBeforeRect(Capabilities caps) {
         switch (caps.getBrowserName()) {
             case "opera":
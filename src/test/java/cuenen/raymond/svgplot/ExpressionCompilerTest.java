@@ -0,0 +1,134 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Wait;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+/**
+ * Test class for testing {@code ExpressionCompiler.js}.
+ *
+ * @author R. M. Cuenen
+ */
+public class ExpressionCompilerTest extends AbstractTestClass {
+
+    private static final String[] MODULE_NAMES = {"ExpressionCompiler", "ExpressionParser"};
+    private static final String UNSUPPORTED = "unsupported";
+    private static final String COMPARE_FORMAT = "function(Compiler, Parser) { if (!Compiler.supported()) { setResult(\"" + UNSUPPORTED + "\"); return; } "
+            + "var tree = Parser.parse(\"%s\"); var compiled = Compiler.compile(tree, \"x\"); if (compiled === null) { setResult(null); return; } "
+            + "var values = new Float64Array(%d); for (var i = 0; i < values.length; i++) { values[i] = %s + i * %s; } "
+            + "var results = compiled.evaluate(values); var max = 0; for (var i = 0; i < values.length; i++) { "
+            + "var r = Number(tree.visit({x: values[i]})); if (r !== results[i] && !(isNaN(r) && isNaN(results[i]))) { max = Math.max(max, Math.abs(r - results[i])); } } "
+            + "setResult(max); }";
+    private static final String FALLBACK_FORMAT = "function(Compiler, Parser) { setResult(Compiler.compile(Parser.parse(\"%s\"), \"x\") === null); }";
+    private static final double TOLERANCE = 1E-12;
+    private static final String[] EXPRESSIONS = {
+        "0", "#x", "e", "pi r", "#x^2", "0.5*#x^2-1", "-1/2*#x*1/2", "#x/#x^2",
+        "-(#x+1)*-(#x-1)", "1+#x*(2+#x*(3+#x*(4+#x)))", "abs(#x)+sqrt(abs(#x))",
+        "floor(#x)+ceil(#x)+int(#x)+frac(#x)", "min(#x,2)", "max(1,#x,-3)", "max()",
+        "sin(#x)+cos(#x r)", "rad(atan(#x))", "veclen(3,#x)", "#x&&(#x-1)",
+        "#x||(#x-1)", "!#x", "#x<=1", "#x>=0.5", "#x>1?#x:-#x", "true()?#x:0", "5!"
+    };
+    private static final String[] UNSUPPORTED_EXPRESSIONS = {
+        "random()", "rnd", "#x==1", "#x<>1", "#x+#y"
+    };
+
+    /**
+     * Verify that the compiled expressions evaluate to the same results as
+     * the parse trees.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void compileTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        for (String expression : EXPRESSIONS) {
+            String result = compare(driver, expression, 20001, -5, 5E-4);
+            if (UNSUPPORTED.equals(result)) {
+                return;
+            }
+            assertFalse("null".equals(result), msg + ": " + expression);
+            assertTrue(Double.parseDouble(result) <= TOLERANCE, msg + ": " + expression + " --> " + result);
+        }
+    }
+
+    /**
+     * Verify that the memory grows for large numbers of samples.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void largeTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        String result = compare(driver, "sin(#x r)*#x", 200000, 0, 1E-3);
+        if (!UNSUPPORTED.equals(result)) {
+            assertFalse("null".equals(result), msg);
+            assertTrue(Double.parseDouble(result) <= TOLERANCE, msg + " --> " + result);
+        }
+    }
+
+    /**
+     * Verify that expressions which cannot be compiled are left to the parse
+     * tree.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void fallbackTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        for (String expression : UNSUPPORTED_EXPRESSIONS) {
+            Wait wait = load(driver, MODULE_LOADER, 1);
+            require(driver, String.format(FALLBACK_FORMAT, expression), MODULE_NAMES);
+            wait.until(RESULT_SET);
+            assertEquals(getResult(driver), "true", msg + ": " + expression);
+        }
+    }
+
+    /**
+     * Convenience method to compare the compiled expression with its parse
+     * tree.
+     *
+     * @param driver The WebDriver executing the test.
+     * @param expression The expression to compile.
+     * @param count The number of samples.
+     * @param start The first variable value.
+     * @param step The step between the variable values.
+     * @return The maximum absolute difference, {@code "null"} when the
+     * expression could not be compiled or {@link #UNSUPPORTED} when there is
+     * no WebAssembly runtime.
+     */
+    private String compare(WebDriver driver, String expression, int count, double start, double step) {
+        Wait wait = load(driver, MODULE_LOADER, 2);
+        require(driver, String.format(COMPARE_FORMAT, expression, count, start, step), MODULE_NAMES);
+        wait.until(RESULT_SET);
+        return getResult(driver);
+    }
+}
@@ -43,6 +43,13 @@ public class ExpressionParserTest extends AbstractTestClass {
 
     private static final String MODULE_NAME = "ExpressionParser";
     private static final String FUNCTION_FORMAT = "function(Parser) { var tree = Parser.parse(\"%s\"); setResult(tree.visit(%s)); }";
+    private static final String BYTECODE_FORMAT = "function(Parser) { var tree = Parser.parse(\"%s\"); setResult(%s); }";
+    private static final String LOAD_FORMAT = "function(Parser) { setResult(Parser.load(\"%s\").visit()); }";
+    private static final String AFFINE_FORMAT = "function(Parser) { setResult(Parser.parse(\"%s\").isAffine(\"x\")); }";
+    private static final String PARAMETER_FUNCTION = "function(Parser) { Parser.setParameter(\"a\", 3); var tree = Parser.parse(\"#a*#x\"); "
+            + "var r = [tree.visit({x: 2}), tree.visit({x: 2, a: 1}), tree.variables().join(\" \")]; Parser.setParameter(\"a\", null); "
+            + "r.push(Parser.getParameter(\"a\")); setResult(r.join()); }";
+    private static final String LARGE_FORMAT = "function(Parser) { var s = \"#x\"; for (var i = 1; i <= %d; i++) { s = %s; } setResult(Parser.parse(s).visit({x:0})); }";
 
     /**
      * Test the parsing of {@code number}s.
@@ -232,6 +239,142 @@ public class ExpressionParserTest extends AbstractTestClass {
         assertStartsWith(evaluateExpression(driver, "0?:true", "", true), "ParseError: Number Expected at '0?[:]true'", msg);
     }
 
+    /**
+     * Test the serialisation and loading of the bytecode form.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void bytecodeTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        Assert.assertEquals(loadBytecode(driver, "#x^2", "tree.serialize()"), "#bc1;V0ML0F0:2;2;x;pow", msg);
+        Assert.assertEquals(loadBytecode(driver, "#x>1?#x:-#x", "tree.serialize()"),
+                "#bc1;V0ML0F0:2MV0MMV0F1:1F2:3;1;x;greater neg ifthenelse", msg);
+        assertEquals(loadBytecode(driver, "veclen(3,#x)+25", "Parser.load(tree.serialize()).visit({x:4})"), 30, msg);
+        assertEquals(loadBytecode(driver, "true() ? #x : pi", "Parser.load(tree.serialize()).visit({x:2.5})"), 2.5, msg);
+    }
+
+    /**
+     * Test the loading of invalid bytecode.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = {"all", "alert"})
+    public void invalidBytecodeTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        assertStartsWith(evaluateBytecode(driver, "#bc2;L0;1;;"), "ParseError: Invalid bytecode: #bc2;L0;1;;", msg);
+        assertStartsWith(evaluateBytecode(driver, "#bc1;L0X;1;;"), "ParseError: Invalid bytecode: #bc1;L0X;1;;", msg);
+        assertStartsWith(evaluateBytecode(driver, "#bc1;F0:0;;;ajax"), "NotFoundError: Unknown function 'ajax'", msg);
+    }
+
+    /**
+     * Test the detection of affine parse trees.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void affineTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        String[] affine = {"5", "2*#x+1", "-(#x+1)*-2", "pi*#x-deg(#x)/3", "max(1,2)*#x r"};
+        String[] other = {"#x^2", "#x*#x", "#x+#y", "#t", "1/#x", "random()*#x", "#x>1?1:2"};
+        for (String expression : affine) {
+            Assert.assertEquals(isAffine(driver, expression), "true", msg + ": " + expression);
+        }
+        for (String expression : other) {
+            Assert.assertEquals(isAffine(driver, expression), "false", msg + ": " + expression);
+        }
+    }
+
+    /**
+     * Test the substitution of document-level parameters.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void parameterTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        require(driver, PARAMETER_FUNCTION, MODULE_NAME);
+        wait.until(RESULT_SET);
+        Assert.assertEquals(getResult(driver), "6,2,a x,", getMessage(driver));
+    }
+
+    /**
+     * Convenience method to test whether or not an expression is affine in
+     * {@code #x}.
+     *
+     * @param driver The WebDriver executing the test.
+     * @param expression The expression to be parsed.
+     * @return The result of {@code isAffine}.
+     */
+    private String isAffine(WebDriver driver, String expression) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        String callback = String.format(AFFINE_FORMAT, expression);
+        require(driver, callback, MODULE_NAME);
+        wait.until(RESULT_SET);
+        return getResult(driver);
+    }
+
+    /**
+     * Test the parsing of very large and deeply nested expressions.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void largeExpressionTest(WebDriver driver) {
+        String msg = getMessage(driver);
+        assertEquals(parseLarge(driver, 10000, "\"(1+\" + s + \")\""), 10000, msg);
+        assertEquals(parseLarge(driver, 5000, "s + \"+max(\" + i + \",1)/\" + i"), 5000, msg);
+    }
+
+    /**
+     * Convenience method to parse and evaluate a generated expression.
+     *
+     * @param driver The WebDriver executing the test.
+     * @param count The number of generation steps.
+     * @param step The script creating the next expression from the current
+     * expression ('s') and the step number ('i').
+     * @return The result of the expression at {@code #x=0}.
+     */
+    private String parseLarge(WebDriver driver, int count, String step) {
+        Wait wait = load(driver, MODULE_LOADER, 10);
+        String callback = String.format(LARGE_FORMAT, count, step);
+        require(driver, callback, MODULE_NAME);
+        wait.until(RESULT_SET);
+        return getResult(driver);
+    }
+
+    /**
+     * Convenience method to parse an expression and evaluate a script using
+     * the resulting parse tree ('tree').
+     *
+     * @param driver The WebDriver executing the test.
+     * @param expression The expression to be parsed.
+     * @param script The script to evaluate.
+     * @return The result of the script.
+     */
+    private String loadBytecode(WebDriver driver, String expression, String script) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        String callback = String.format(BYTECODE_FORMAT, expression, script);
+        require(driver, callback, MODULE_NAME);
+        wait.until(RESULT_SET);
+        return getResult(driver);
+    }
+
+    /**
+     * Convenience method to load invalid bytecode, returning the alert.
+     *
+     * @param driver The WebDriver executing the test.
+     * @param bytecode The bytecode to be loaded.
+     * @return The alert text.
+     */
+    private String evaluateBytecode(WebDriver driver, String bytecode) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        String callback = String.format(LOAD_FORMAT, bytecode);
+        require(driver, callback, MODULE_NAME);
+        wait.until(ExpectedConditions.alertIsPresent());
+        return getAlert(driver);
+    }
+
     /**
      * Convenience method to evaluate an expression.
      *
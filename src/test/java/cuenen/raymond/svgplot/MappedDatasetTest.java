@@ -0,0 +1,150 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot;
+
+import cuenen.raymond.svgplot.server.MappedDataset;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.HashSet;
+import java.util.Set;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+/**
+ * Test class for testing the server-side slicing of binary datasets by
+ * {@code MappedDataset}.
+ *
+ * @author R. M. Cuenen
+ */
+public class MappedDatasetTest {
+
+    private static final int LENGTH = 100000;
+    private File file;
+    private MappedDataset dataset;
+
+    @BeforeClass(alwaysRun = true)
+    public void createDataset() throws Exception {
+        file = File.createTempFile("dataset", ".bin");
+        ByteBuffer buffer = ByteBuffer.allocate(16 * LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < LENGTH; i++) {
+            buffer.putDouble(i);
+        }
+        for (int i = 0; i < LENGTH; i++) {
+            buffer.putDouble(y(i));
+        }
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(buffer.array());
+        }
+        dataset = new MappedDataset(file, 8);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteDataset() {
+        dataset = null;
+        file.delete();
+    }
+
+    /**
+     * Test the binary search over the x values.
+     */
+    @Test(groups = "all")
+    public void boundsTest() {
+        assertEquals(dataset.length(), LENGTH);
+        assertEquals(dataset.lowerBound(-1), 0);
+        assertEquals(dataset.lowerBound(10.5), 11);
+        assertEquals(dataset.lowerBound(10), 10);
+        assertEquals(dataset.upperBound(10), 11);
+        assertEquals(dataset.upperBound(LENGTH), LENGTH);
+    }
+
+    /**
+     * Test the transfer of a slice in the dataset format.
+     *
+     * @throws IOException When the slice cannot be written.
+     */
+    @Test(groups = "all")
+    public void transferTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        dataset.transfer(10, 13, Channels.newChannel(out));
+        ByteBuffer slice = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(slice.remaining(), 48);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(slice.getDouble(8 * i), 10.0 + i);
+            assertEquals(slice.getDouble(24 + 8 * i), y(10 + i));
+        }
+    }
+
+    /**
+     * Verify that the decimation keeps the first, last, minimum and maximum
+     * point of every pixel column.
+     *
+     * @throws IOException When the slice cannot be written.
+     */
+    @Test(groups = "all")
+    public void decimateTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = dataset.decimate(0, LENGTH, 1000, Channels.newChannel(out));
+        assertTrue(count <= 4000, String.valueOf(count));
+        ByteBuffer slice = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(slice.remaining(), 16 * count);
+        Set<Integer> kept = new HashSet<>();
+        double previous = -1;
+        for (int i = 0; i < count; i++) {
+            double x = slice.getDouble(8 * i);
+            assertTrue(x > previous);
+            assertEquals(slice.getDouble(8 * (int) (count + i)), y((int) x));
+            kept.add((int) x);
+            previous = x;
+        }
+        for (int column = 0; column < 1000; column++) {
+            int first = 100 * column;
+            int last = first + 99;
+            int min = first;
+            int max = first;
+            for (int i = first; i <= last; i++) {
+                min = y(i) < y(min) ? i : min;
+                max = y(i) > y(max) ? i : max;
+            }
+            for (int index : new int[]{first, last, min, max}) {
+                assertTrue(kept.contains(index), column + ": " + index);
+            }
+        }
+    }
+
+    private static double y(int i) {
+        return Math.sin(i / 7.0) * (i % 5);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.Wait;
+import org.testng.Reporter;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+/**
+ * Performance test class, measuring the conversion of plot elements in the
+ * browser. These tests are in the {@code perf} group and are run with the
+ * {@code perf} profile. Each scenario is measured over a number of runs, of
+ * which the percentiles are written to the report file. A test fails when a
+ * percentile exceeds its baseline value by more than the threshold.
+ * <p>
+ * The number of forced layouts and DOM mutations of a scenario are reported as
+ * well, both when handling all plot elements at once and when handling them
+ * one by one ({@code sequential}). A test fails when a count of the former
+ * exceeds its baseline value.
+ * <p>
+ * The following system properties can be set:
+ * <ul>
+ * <li>{@code svgplot.perf.runs}: The number of measured runs (10).</li>
+ * <li>{@code svgplot.perf.warmup}: The number of warm-up runs (2).</li>
+ * <li>{@code svgplot.perf.threshold}: The allowed relative regression
+ * (0.25).</li>
+ * <li>{@code svgplot.perf.baseline}: The baseline file
+ * (src/test/resources/perf-baseline.properties).</li>
+ * <li>{@code svgplot.perf.report}: The report file
+ * (target/perf-report.properties).</li>
+ * </ul>
+ * The counts do not depend on the machine, and the committed baseline holds
+ * them. Keys without a baseline value, such as the durations of a machine
+ * without a reference run, are reported as not checked. A report file of a
+ * reference run can be used as the baseline of later runs.
+ *
+ * @author R. M. Cuenen
+ */
+public class PerformanceTest extends AbstractTestClass {
+
+    private static final String MODULE_NAME = "SVGPlotter";
+    private static final String CALLBACK = "function(p){window.plotter=p;setResult('ready');}";
+    private static final String MEASURE_SCRIPT = "return PerformanceDriver.measure(window.plotter, arguments[0]);";
+    private static final String[] COUNTS = {"layouts", "mutations"};
+    private static final int TIMEOUT = 60;
+    private static final int RUNS = Integer.getInteger("svgplot.perf.runs", 10);
+    private static final int WARMUP = Integer.getInteger("svgplot.perf.warmup", 2);
+    private static final double THRESHOLD = Double.parseDouble(System.getProperty("svgplot.perf.threshold", "0.25"));
+    private static final File BASELINE = new File(System.getProperty("svgplot.perf.baseline", "src/test/resources/perf-baseline.properties"));
+    private static final File REPORT = new File(System.getProperty("svgplot.perf.report", "target/perf-report.properties"));
+    private static final int[] PERCENTILES = {50, 90, 99};
+    private static final Properties RESULTS = new Properties();
+
+    /**
+     * Measure the conversion of 1,000 plot elements.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "perf")
+    public void manyPlotsTest(WebDriver driver) {
+        measure(driver, "/PerfManyPlots.svg", "many-plots");
+    }
+
+    /**
+     * Measure the conversion of 500 plot elements whose number of samples
+     * depends on their on-screen size.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "perf")
+    public void autoPlotsTest(WebDriver driver) {
+        measure(driver, "/PerfAutoPlots.svg", "auto-plots");
+    }
+
+    /**
+     * Measure the conversion of a plot element with 100,000 samples.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "perf")
+    public void largePlotTest(WebDriver driver) {
+        measure(driver, "/PerfLargePlot.svg", "large-plot");
+    }
+
+    /**
+     * Measure the conversion of smoothly connected parametric plot elements.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "perf")
+    public void smoothParametricTest(WebDriver driver) {
+        measure(driver, "/PerfSmoothParametric.svg", "smooth-parametric");
+    }
+
+    /**
+     * Measure the conversion of plot elements with deeply nested expressions.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "perf")
+    public void deepExpressionTest(WebDriver driver) {
+        measure(driver, "/PerfDeepExpression.svg", "deep-expression");
+    }
+
+    /**
+     * Measures the given scenario, reports the percentiles and compares them
+     * against the baseline.
+     *
+     * @param driver The WebDriver executing the test.
+     * @param resource The resource holding the plot template.
+     * @param scenario The scenario name used in the report.
+     */
+    private void measure(WebDriver driver, String resource, String scenario) {
+        Wait wait = load(driver, resource, TIMEOUT);
+        require(driver, CALLBACK, MODULE_NAME);
+        wait.until(RESULT_SET);
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        double[] durations = new double[RUNS];
+        Map<String, Object> counts = null;
+        for (int i = -WARMUP; i < RUNS; i++) {
+            counts = execute(js, false);
+            if (i >= 0) {
+                durations[i] = ((Number) counts.get("duration")).doubleValue();
+            }
+        }
+        Map<String, Object> sequential = execute(js, true);
+        Arrays.sort(durations);
+        String prefix = getBrowserName(driver) + '.' + scenario + '.';
+        Properties baseline = loadBaseline();
+        List<String> regressions = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        StringBuilder log = new StringBuilder(prefix);
+        for (int percentile : PERCENTILES) {
+            String key = prefix + 'p' + percentile;
+            double value = percentile(durations, percentile);
+            RESULTS.setProperty(key, String.format("%.3f", value));
+            log.append(" p").append(percentile).append('=').append(String.format("%.3f", value));
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                missing.add(key);
+            } else if (value > Double.parseDouble(expected) * (1 + THRESHOLD)) {
+                regressions.add(key + ": " + String.format("%.3f", value) + " > " + expected);
+            }
+        }
+        for (String count : COUNTS) {
+            String key = prefix + count;
+            long value = ((Number) counts.get(count)).longValue();
+            RESULTS.setProperty(key, String.valueOf(value));
+            RESULTS.setProperty(prefix + "sequential." + count, String.valueOf(sequential.get(count)));
+            log.append(' ').append(count).append('=').append(value);
+            log.append(" (sequential ").append(sequential.get(count)).append(')');
+            String expected = baseline.getProperty(key);
+            if (expected == null) {
+                missing.add(key);
+            } else if (value > Long.parseLong(expected)) {
+                regressions.add(key + ": " + value + " > " + expected);
+            }
+        }
+        Reporter.log(log.toString(), true);
+        storeResults();
+        if (!missing.isEmpty()) {
+            Reporter.log("Not checked, no baseline in " + BASELINE + " for " + missing
+                    + "; copy the values from " + REPORT + " of a reference run", true);
+        }
+        assertTrue(regressions.isEmpty(), getMessage(driver) + " --> " + regressions);
+    }
+
+    /**
+     * Runs the measure script once.
+     *
+     * @param js The JavaScript executor.
+     * @param sequential Whether to handle the plot elements one by one.
+     * @return The duration and the layout and mutation counts.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> execute(JavascriptExecutor js, boolean sequential) {
+        return (Map<String, Object>) js.executeScript(MEASURE_SCRIPT, sequential);
+    }
+
+    /**
+     * Returns the nearest-rank percentile of the sorted values.
+     *
+     * @param sorted The sorted values.
+     * @param percentile The percentile (0-100).
+     * @return The percentile value.
+     */
+    private static double percentile(double[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static String getBrowserName(WebDriver driver) {
+        if (driver instanceof HasCapabilities) {
+            return ((HasCapabilities) driver).getCapabilities().getBrowserName();
+        }
+        return driver.getClass().getSimpleName();
+    }
+
+    private static Properties loadBaseline() {
+        Properties baseline = new Properties();
+        if (BASELINE.isFile()) {
+            try (InputStream in = new FileInputStream(BASELINE)) {
+                baseline.load(in);
+            } catch (IOException ex) {
+                Reporter.log("Cannot read " + BASELINE + ": " + ex.getMessage(), true);
+            }
+        }
+        return baseline;
+    }
+
+    private static synchronized void storeResults() {
+        File directory = REPORT.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            directory.mkdirs();
+        }
+        try (OutputStream out = new FileOutputStream(REPORT)) {
+            RESULTS.store(out, "Plot conversion durations (ms) per browser and scenario");
+        } catch (IOException ex) {
+            Reporter.log("Cannot write " + REPORT + ": " + ex.getMessage(), true);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot;
+
+import cuenen.raymond.svgplot.server.PlotExpander;
+import cuenen.raymond.svgplot.server.PlotRenderer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import static cuenen.raymond.svgplot.PathValidator.*;
+import static org.testng.Assert.*;
+
+/**
+ * Test class for testing the server-side expansion of plot elements by
+ * {@code PlotExpander}, which runs the modules in the JVM script engine.
+ *
+ * @author R. M. Cuenen
+ */
+public class PlotExpanderTest {
+
+    private static final File MODULES = new File("src/main/webapp/modules");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String DOCUMENT = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>"
+            + "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+            + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+            + "<g stroke=\"black\">"
+            + "<plot id=\"svg-plot-1\" domain=\"-1:1\" samples=\"10\" variable=\"#t\" function=\"#t^2,rad(atan(#t))\" />"
+            + "<plot id=\"svg-plot-2\" domain=\"0:2\" samples=\"10\" function=\"0.5*#x^2-1\" stroke=\"blue\">"
+            + "<animate attributeName=\"stroke-width\" to=\"2\" dur=\"1s\" />"
+            + "</plot>"
+            + "</g>"
+            + "</svg>";
+    private PlotRenderer renderer;
+
+    @BeforeClass(alwaysRun = true)
+    public void createRenderer() throws Exception {
+        renderer = new PlotRenderer(PlotRenderer.DEFAULT_ENGINE, new PlotRenderer.ModuleSource() {
+
+            @Override
+            public InputStream open(String id) throws IOException {
+                return new FileInputStream(new File(MODULES, id + ".js"));
+            }
+        });
+    }
+
+    /**
+     * Test the expansion of plot elements into path elements.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandPlotElementsTest() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = new PlotExpander().expand(new ByteArrayInputStream(DOCUMENT.getBytes(UTF_8)), out, renderer);
+        assertEquals(count, 2);
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        Document document = factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").getLength(), 0);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 0);
+        Element path1 = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "path").item(0);
+        Element path2 = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "path").item(1);
+        assertEquals(path1.getAttribute("id"), "svg-plot-1");
+        assertFalse(path1.hasAttribute("function"));
+        validatePath(path1.getAttribute("d"), SQUARED_ATAN, -1, 1, 10);
+        assertEquals(path2.getAttribute("stroke"), "blue");
+        validatePath(path2.getAttribute("d"), X_HALFSQUAREDMINUS1, 0, 2, 10);
+        assertEquals(path2.getElementsByTagNameNS(PlotExpander.SVG_NS, "animate").getLength(), 1);
+    }
+
+    /**
+     * Test that plot elements split into segments are left to the client,
+     * together with the module loader script.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandSegmentPlotTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+                + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+                + "<plot id=\"svg-plot-1\" domain=\"0:2\" samples=\"10\" function=\"0.5*#x^2-1\" />"
+                + "<plot id=\"svg-plot-2\" domain=\"0:2\" samples=\"1000\" segment=\"100\" function=\"0.5*#x^2-1\" />"
+                + "</svg>";
+        Document document = expand(svg, 1);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 1);
+        Element path = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "path").item(0);
+        assertEquals(path.getAttribute("id"), "svg-plot-1");
+        Element plot = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").item(0);
+        assertEquals(plot.getAttribute("id"), "svg-plot-2");
+        assertEquals(plot.getAttribute("segment"), "100");
+    }
+
+    /**
+     * Test that data series plot elements, and plot elements loading their
+     * data, are left to the client, together with the module loader script.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandDataPlotTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+                + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+                + "<plot id=\"svg-plot-1\" series=\"500\" />"
+                + "<plot id=\"svg-plot-2\" src=\"data/series.bin\" />"
+                + "</svg>";
+        Document document = expand(svg, 0);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 1);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "path").getLength(), 0);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").getLength(), 2);
+    }
+
+    /**
+     * Test that the module loader script is kept when the document has other
+     * scripts, which may use it, while the plot elements are still expanded.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandInlineScriptTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+                + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+                + "<plot id=\"svg-plot-1\" domain=\"0:2\" samples=\"10\" function=\"0.5*#x^2-1\" />"
+                + "<script><![CDATA[function appendPlot() { return SVGModule.SVG_NS; }]]></script>"
+                + "</svg>";
+        Document document = expand(svg, 1);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 2);
+        Element loader = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").item(0);
+        assertEquals(loader.getAttribute("id"), "svgplot-loader");
+        Element script = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").item(1);
+        assertTrue(script.getTextContent().contains("appendPlot"));
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").getLength(), 0);
+    }
+
+    /**
+     * Test that plot elements deriving their number of samples from the
+     * on-screen size are left to the client, together with the module loader
+     * script.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandAutoSamplesTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+                + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+                + "<plot id=\"svg-plot-1\" domain=\"0:100\" samples=\"auto\" function=\"#x^2\" />"
+                + "</svg>";
+        Document document = expand(svg, 0);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 1);
+        Element plot = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").item(0);
+        assertEquals(plot.getAttribute("samples"), "auto");
+    }
+
+    /**
+     * Test that zoom-aware plot elements are left to the client, together
+     * with the module loader script, and that other plot elements are still
+     * expanded.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandZoomPlotTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+                + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+                + "<plot id=\"svg-plot-1\" domain=\"0:100000\" zoom=\"true\" function=\"sin(#x)\" />"
+                + "<plot id=\"svg-plot-2\" domain=\"0:2\" samples=\"10\" zoom=\"false\" function=\"0.5*#x^2-1\" />"
+                + "</svg>";
+        Document document = expand(svg, 1);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 1);
+        Element plot = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").item(0);
+        assertEquals(plot.getAttribute("id"), "svg-plot-1");
+        assertEquals(plot.getAttribute("zoom"), "true");
+        Element path = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "path").item(0);
+        assertEquals(path.getAttribute("id"), "svg-plot-2");
+    }
+
+    /**
+     * Test that plot elements referring to document parameters are left to
+     * the client, together with the module loader script, and that swept
+     * parameters and plot variables are not taken for document parameters.
+     *
+     * @throws Exception When the document cannot be expanded.
+     */
+    @Test(groups = "all")
+    public void expandParameterPlotTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\">"
+                + "<script id=\"svgplot-loader\" xlink:href=\"/SVGPlotModule.js\" base=\"/modules\" />"
+                + "<plot id=\"svg-plot-1\" domain=\"0:2\" samples=\"10\" function=\"#a*#x\" />"
+                + "<plot id=\"svg-plot-2\" domain=\"0:2\" samples=\"10\" variable=\"#t\" function=\"#t,#b*#t\" />"
+                + "<plot id=\"svg-plot-3\" domain=\"0:2\" samples=\"10\" sweep=\"#k=1:3\" function=\"#k*#x\" />"
+                + "</svg>";
+        Document document = expand(svg, 1);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "script").getLength(), 1);
+        assertEquals(document.getElementsByTagNameNS(PlotExpander.SVG_NS, "plot").getLength(), 2);
+        Element path = (Element) document.getElementsByTagNameNS(PlotExpander.SVG_NS, "path").item(0);
+        assertEquals(path.getAttribute("id"), "svg-plot-3");
+    }
+
+    /**
+     * Test for an error when a plot element has no 'function' attribute.
+     *
+     * @throws Exception When the document cannot be read.
+     */
+    @Test(groups = "all")
+    public void expandNoFunctionTest() throws Exception {
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\"><plot samples=\"100\" /></svg>";
+        try {
+            new PlotExpander().expand(new ByteArrayInputStream(svg.getBytes(UTF_8)), new ByteArrayOutputStream(), renderer);
+            fail("Expected a ScriptException");
+        } catch (javax.script.ScriptException ex) {
+            assertTrue(ex.getMessage().contains("Function not set: <plot samples=\"100\" />"), ex.getMessage());
+        }
+    }
+
+    private Document expand(String svg, int expected) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = new PlotExpander().expand(new ByteArrayInputStream(svg.getBytes(UTF_8)), out, renderer);
+        assertEquals(count, expected);
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
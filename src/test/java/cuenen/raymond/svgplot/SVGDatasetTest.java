@@ -0,0 +1,95 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+package cuenen.raymond.svgplot;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.Wait;
+import org.testng.annotations.Test;
+import static org.testng.Assert.*;
+
+/**
+ * Test class for testing {@code SVGDataset.js}.
+ *
+ * @author R. M. Cuenen
+ */
+public class SVGDatasetTest extends AbstractTestClass {
+
+    private static final String MODULE_NAME = "SVGDataset";
+    private static final String WRAP_FUNCTION = "function(D){var b=new ArrayBuffer(24);new Float32Array(b).set([1,2,3,4,5,6]);"
+            + "var d=D.wrap(b,'float32');setResult([d.xs.buffer===b,d.xs.length,d.xs[2],d.ys[0]].join(' '));}";
+    private static final String LENGTH_FUNCTION = "function(D){D.wrap(new ArrayBuffer(12),'float64');}";
+    private static final String DECIMATE_FORMAT = "function(D){var n=%d,xs=new Float64Array(n),ys=new Float64Array(n);"
+            + "for(var i=0;i<n;i++){xs[i]=i;ys[i]=Math.sin(i/7)*(i%%5);}var r=D.decimate(xs,ys,%d),ok=true;"
+            + "for(var c=0;c<n/100;c++){var f=c*100,l=f+99,mn=f,mx=f;for(i=f;i<=l;i++){if(ys[i]<ys[mn])mn=i;if(ys[i]>ys[mx])mx=i;}"
+            + "[f,l,mn,mx].forEach(function(k){if(Array.prototype.indexOf.call(r,k)<0)ok=false;});}"
+            + "for(i=1;i<r.length;i++){if(r[i]<=r[i-1])ok=false;}setResult(ok+' '+(r.length<=4*%2$d));}";
+
+    /**
+     * Verify that a dataset is viewed without copying it.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void wrapTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        require(driver, WRAP_FUNCTION, MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "true 3 3 4", getMessage(driver));
+    }
+
+    /**
+     * Verify the exception when the dataset length does not match the format.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = {"all", "alert"})
+    public void invalidLengthTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        require(driver, LENGTH_FUNCTION, MODULE_NAME);
+        wait.until(ExpectedConditions.alertIsPresent());
+        String alert = getAlert(driver);
+        assertTrue(alert.startsWith("ParseError: Invalid float64 dataset length: 12"),
+                getMessage(driver) + " --> " + alert);
+    }
+
+    /**
+     * Verify that the decimation keeps the first, last, minimum and maximum
+     * point of every pixel column.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void decimateTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        require(driver, String.format(DECIMATE_FORMAT, 100000, 1000), MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "true true", getMessage(driver));
+    }
+}
@@ -54,16 +54,40 @@ public class SVGPlotAttributesTest extends AbstractTestClass {
         {"samples", "101", "25", "101"},
         {"variable", "test_Var", "#x", "#test_Var"},
         {"connected", "smooth", "sharp", "smooth"},
-        {"function", "#x^2", "null", ",[object Object]"}
+        {"function", "#x^2", "null", ",[object Object]"},
+        {"function-bc", "#bc1;V0ML0F0:2;2;x;pow", "null", ",[object Object]"},
+        {"profile", "true", "false", "true"},
+        {"backend", "wasm", "js", "wasm"},
+        {"period", "2*pi", "null", "6.283185307179586"},
+        {"series", "500", "null", "500"},
+        {"src", "data/series.bin", "null", "data/series.bin"},
+        {"format", "float32", "float64", "float32"},
+        {"zoom", "true", "false", "true"},
+        {"sweep", "#k=1:50", "null", "[object Object]"},
+        {"distribution", "chebyshev", "linear", "chebyshev"},
+        {"segment", "1000", "null", "1000"}
     };
     private static final String[][] INVALID_ATTRIBUTES = {
         {"domain", "0:-1", "ParseError: Invalid domain: 0 > -1"},
         {"domain", "-5,5", "ParseError: Unknown domain format: -5,5"},
         {"samples", "pi", "ParseError: Invalid samples: pi"},
         {"samples", "0", "ParseError: Invalid samples: 0"},
+        {"samples", "automatic", "ParseError: Invalid samples: automatic"},
         {"variable", "_t", "ParseError: Invalid variable: _t"},
         {"connected", "normal", "ParseError: Invalid connection type: normal"},
-        {"function", "#x,#^2,0", "ParseError: Invalid function: #x,#^2,0"}
+        {"function", "#x,#^2,0", "ParseError: Invalid function: #x,#^2,0"},
+        {"function-bc", "#bc1;L1;2;;", "ParseError: Invalid bytecode: #bc1;L1;2;;"},
+        {"profile", "yes", "ParseError: Invalid profile: yes"},
+        {"backend", "asm", "ParseError: Invalid backend: asm"},
+        {"period", "-360", "ParseError: Invalid period: -360"},
+        {"series", "none", "ParseError: Invalid series: none"},
+        {"src", " ", "ParseError: Invalid src:  "},
+        {"format", "int16", "ParseError: Invalid format: int16"},
+        {"zoom", "in", "ParseError: Invalid zoom: in"},
+        {"sweep", "#k=50:1", "ParseError: Invalid sweep: #k=50:1"},
+        {"distribution", "uniform", "ParseError: Invalid distribution: uniform"},
+        {"distribution", "#x^2", "ParseError: Invalid distribution: #x^2"},
+        {"segment", "-1", "ParseError: Invalid segment: -1"}
     };
     private static final String[] UNKNOWN_ATTRIBUTE = {"Bogus", "six", "NotFoundError: Unknown attribute: Bogus"};
     private static final String[] NEW_ATTRIUTE = {UNKNOWN_ATTRIBUTE[0], "0", "function(a){var v=0;for(var i=0;i<a.length;i++){v+=a.charCodeAt(i);}return v;}"};
@@ -28,10 +28,15 @@
  */
 package cuenen.raymond.svgplot;
 
+import java.util.List;
+import java.util.Map;
 import org.openqa.selenium.By;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Wait;
+import org.testng.Reporter;
 import org.testng.annotations.Test;
 import static org.testng.Assert.*;
 
@@ -44,10 +49,19 @@ public class SVGPlotModuleTest extends AbstractTestClass {
 
     private static final String MODULE_LOADER_WITH_BASE = "/ModuleLoaderWithModuleBase.svg";
     private static final String MODULE_LOADER_RELATIVE = "/ModuleLoaderRelative.svg";
+    private static final String MODULE_LOADER_MANIFEST = "/ModuleLoaderManifest.svg";
+    private static final String MANIFEST_SCRIPT = "SVGModule.require([\"SVGPlotter\"], function(p) { setResult(typeof p.handle); });"
+            + "return document.getElementsByTagName(\"script\").length;";
     private static final String TEST_MODULE_NAME = "TestModule";
     private static final String TEST_MODULE_CALLBACK = "function(element) { document.documentElement.appendChild(element); }";
     private static final String TEST_MODULE_ID = "loaded-text";
     private static final String ERROR_MESSAGE = "ModuleError: Error while loading /modules/TestModule2.js";
+    private static final String MODULE_LOADER_CACHE = "/ModuleLoaderCache.svg";
+    private static final String CACHE_CALLBACK = "function(p) { var s = SVGModule.cacheStatistics(); setResult(s.hits + \",\" + s.misses + \",\" + s.elapsed); }";
+    private static final String MODULE_LOADER_STATS = "/ModuleLoaderStats.svg";
+    private static final String STATS_CALLBACK = "function(p) { setResult(typeof p.handle); }";
+    private static final String CIRCULAR_MODULE_NAME = "CircularModuleA";
+    private static final String CIRCULAR_MESSAGE = "ModuleError: Circular dependency: CircularModuleB -> CircularModuleA -> CircularModuleB";
 
     /**
      * Test the SVGModule loader with 'moduleBase' attribute.
@@ -73,6 +87,76 @@ public class SVGPlotModuleTest extends AbstractTestClass {
         wait.until(ExpectedConditions.presenceOfElementLocated(By.id(TEST_MODULE_ID)));
     }
 
+    /**
+     * Test that the SVGModule loader requests all dependencies listed in the
+     * manifest at once.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void testSVGPlotModuleManifest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER_MANIFEST, 1);
+        Object scripts = ((JavascriptExecutor) driver).executeScript(MANIFEST_SCRIPT);
+        String msg = getMessage(driver);
+        /* The two scripts of the document and the seven modules. */
+        assertEquals(((Number) scripts).intValue(), 9, msg);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "function", msg);
+    }
+
+    /**
+     * Test that the SVGModule loader evaluates cached modules on a warm start.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void testSVGPlotModuleCache(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER_CACHE, 1);
+        ((JavascriptExecutor) driver).executeScript("SVGModule.clearCache();");
+        require(driver, CACHE_CALLBACK, "SVGPlotter");
+        wait.until(RESULT_SET);
+        String[] cold = getResult(driver).split(",");
+        wait = load(driver, MODULE_LOADER_CACHE, 1);
+        require(driver, CACHE_CALLBACK, "SVGPlotter");
+        wait.until(RESULT_SET);
+        String[] warm = getResult(driver).split(",");
+        String msg = getMessage(driver);
+        assertEquals(cold[0], "0", msg);
+        assertEquals(cold[1], "7", msg);
+        assertEquals(warm[0], "7", msg);
+        assertEquals(warm[1], "0", msg);
+        String browser = ((HasCapabilities) driver).getCapabilities().getBrowserName();
+        Reporter.log("Loaded on " + browser + ": cold start " + cold[2]
+                + " ms, warm start " + warm[2] + " ms", true);
+    }
+
+    /**
+     * Test the timing statistics recorded by the SVGModule loader.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    @SuppressWarnings("unchecked")
+    public void testSVGPlotModuleStats(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER_STATS, 1);
+        require(driver, STATS_CALLBACK, "SVGPlotter");
+        wait.until(RESULT_SET);
+        String msg = getMessage(driver);
+        Map<String, Object> stats = getLoaderStats(driver);
+        assertNotNull(stats, msg);
+        List<Map<String, Object>> modules = (List<Map<String, Object>>) stats.get("modules");
+        assertEquals(modules.size(), 8, msg);
+        for (Map<String, Object> module : modules) {
+            double arrived = ((Number) module.get("arrived")).doubleValue();
+            double started = ((Number) module.get("started")).doubleValue();
+            double finished = ((Number) module.get("finished")).doubleValue();
+            assertTrue(arrived <= started && started <= finished, msg + ": " + module);
+        }
+        List<String> path = (List<String>) stats.get("criticalPath");
+        assertFalse(path.isEmpty(), msg);
+        assertTrue(path.get(path.size() - 1).startsWith("require"), msg + ": " + path);
+    }
+
     /**
      * Test for an error when the SVGModule loader cannot load a module.
      *
@@ -87,4 +171,19 @@ public class SVGPlotModuleTest extends AbstractTestClass {
         String msg = getMessage(driver);
         assertTrue(alert.startsWith(ERROR_MESSAGE), msg + " --> " + alert);
     }
+
+    /**
+     * Test for an error when modules depend on each other.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = {"all", "alert"})
+    public void testSVGPlotModuleCircular(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER_WITH_BASE, 1);
+        require(driver, TEST_MODULE_CALLBACK, CIRCULAR_MODULE_NAME);
+        wait.until(ExpectedConditions.alertIsPresent());
+        String alert = getAlert(driver);
+        String msg = getMessage(driver);
+        assertTrue(alert.startsWith(CIRCULAR_MESSAGE), msg + " --> " + alert);
+    }
 }
@@ -115,6 +115,283 @@ public class SVGPlotterTest extends AbstractTestClass {
                 msg + " --> " + alert);
     }
 
+    /**
+     * Test the profiling of the conversion of a plot element.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleProfileTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "connected", "smooth");
+        addAttribute(plot, "samples", "10");
+        addAttribute(plot, "function", "#x^2");
+        addAttribute(plot, "profile", "true");
+        plot.append("document.documentElement.appendChild(el);");
+        plot.append("var d=null;document.documentElement.addEventListener('plotprofile',function(e){d=e.detail;},false);");
+        plot.append("var path=p.handle(el);var s=p.statistics(true);");
+        plot.append("setResult([d.samples,d.length===path.getAttribute('d').length,");
+        plot.append("path.hasAttribute('profile'),s.count,s.stages.evaluation.buckets.length===s.buckets.length].join());");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "21,true,false,1,true", getMessage(driver));
+    }
+
+    /**
+     * Test the two-point segment of an affine plot element.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleAffineTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "connected", "smooth");
+        addAttribute(plot, "samples", "100");
+        addAttribute(plot, "function", "#t,2*#t+1");
+        addAttribute(plot, "variable", "t");
+        plot.append("var d=p.handle(el).getAttribute('d');");
+        plot.append("setResult(d.replace(/[0-9.]+/g,function(v){return Math.round(v);}));");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "M-5,9L5,-11", getMessage(driver));
+    }
+
+    /**
+     * Test the repetition of a single period of a periodic plot element.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handlePeriodTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "domain", "0:1000");
+        addAttribute(plot, "samples", "10");
+        addAttribute(plot, "function", "sin(#x)");
+        addAttribute(plot, "period", "360");
+        plot.append("var d=p.handle(el).getAttribute('d');");
+        plot.append("setResult(d.replace(/[0-9.]+(e-?[0-9]+)?/g,function(v){return Math.round(v);}));");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "M0,0L90,-1l90,1l90,1l90,-1L450,-1l90,1l90,1l90,-1L810,-1l90,1l90,1L1000,1",
+                getMessage(driver));
+    }
+
+    /**
+     * Test the appending to and rolling over of a data series.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleSeriesTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "series", "3");
+        plot.append("var path=p.handle(el);var s=p.series(path);var r=[];");
+        plot.append("s.append(1,1);s.appendBatch([2,3],[4,9]);r.push(path.hasAttribute('d'));");
+        plot.append("s.flush();r.push(path.getAttribute('d'));");
+        plot.append("s.append(4,16);s.flush();r.push(path.getAttribute('d'));");
+        plot.append("setResult(r.join(' '));");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "false M1,-1L2,-4L3,-9 M2,-4L3,-9L4,-16", getMessage(driver));
+    }
+
+    /**
+     * Test the number of samples derived from the on-screen size, and the
+     * re-sampling when it changes significantly.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleAutoSamplesTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "samples", "auto");
+        addAttribute(plot, "domain", "0:100");
+        addAttribute(plot, "function", "#x^2");
+        plot.append("var g=document.createElementNS(SVGModule.SVG_NS,'g');g.setAttribute('transform','scale(2)');");
+        plot.append("g.appendChild(el);document.documentElement.appendChild(g);var path=p.handle(el);");
+        plot.append("var r=window.devicePixelRatio||1,n=function(){return path.getAttribute('d').split('L').length-1;},c=[n()===Math.round(100*r)];");
+        plot.append("g.setAttribute('transform','scale(4)');p.refresh();c.push(n()===Math.round(200*r));");
+        plot.append("g.setAttribute('transform','scale(4.5)');p.refresh();c.push(n()===Math.round(200*r));");
+        plot.append("setResult(c.join());");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "true,true,true", getMessage(driver));
+    }
+
+    /**
+     * Test the evaluation of the visible tiles of a zoom-aware plot, and the
+     * reuse of cached tiles.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleZoomTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "zoom", "true");
+        addAttribute(plot, "domain", "0:100000");
+        addAttribute(plot, "function", "sin(#x r/100)");
+        plot.append("var g=document.createElementNS(SVGModule.SVG_NS,'g');");
+        plot.append("g.appendChild(el);document.documentElement.appendChild(g);var path=p.handle(el);var d1=path.getAttribute('d');");
+        plot.append("g.setAttribute('transform','scale(8) translate(-1000,0)');p.refresh();var d2=path.getAttribute('d');");
+        plot.append("g.removeAttribute('transform');p.refresh();var x=Number(/^M([-0-9.e]+)/.exec(d2)[1]);");
+        plot.append("setResult([d1.length<d2.length*100,d1!==d2,x>=900&&x<=1000,path.getAttribute('d')===d1].join());");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "true,true,true,true", getMessage(driver));
+    }
+
+    /**
+     * Test the re-evaluation of the plots depending on a changed parameter.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleParameterTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder("p.setParameter('k',1);");
+        plot.append("var plot=function(f){var el=document.createElementNS(SVGModule.SVG_NS,'plot');");
+        plot.append("el.setAttribute('domain','0:4');el.setAttribute('samples','4');el.setAttribute('function',f);");
+        plot.append("document.documentElement.appendChild(el);return p.handle(el);};");
+        plot.append("var path1=plot('#k*#x^2'),path2=plot('#x^2'),d1=path1.getAttribute('d'),d2=path2.getAttribute('d');");
+        plot.append("p.setParameter('k',3);p.setParameter('k',2);var batched=path1.getAttribute('d')===d1;");
+        plot.append("var id=setInterval(function(){if(path1.getAttribute('d')!==d1){clearInterval(id);");
+        plot.append("setResult([batched,path1.getAttribute('d'),path2.getAttribute('d')===d2].join());}},10);");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "true,M0,0L1,-2L2,-8L3,-18L4,-32,true", getMessage(driver));
+    }
+
+    /**
+     * Test the plotting of a parameter sweep as one path.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleSweepTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(plot, "domain", "0:2");
+        addAttribute(plot, "samples", "2");
+        addAttribute(plot, "function", "#k*#x^2");
+        addAttribute(plot, "sweep", "#k=1:2");
+        plot.append("setResult(p.handle(el).getAttribute('d'));");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "M0,0L1,-1L2,-4M0,0L1,-2L2,-8", getMessage(driver));
+    }
+
+    /**
+     * Test the plotting with non-uniformly distributed samples.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleDistributionTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder();
+        plot.append("var plot=function(d,f,s){var el=document.createElementNS(SVGModule.SVG_NS,'plot');");
+        plot.append("el.setAttribute('domain',d);el.setAttribute('function',f);el.setAttribute('distribution',s);");
+        plot.append("el.setAttribute('samples','4');return p.handle(el).getAttribute('d');};");
+        plot.append("setResult([plot('0:4','#x^2','#t^2'),plot('1:16','#x','log')].join());");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "M0,0L0.25,-0.0625L1,-1L2.25,-5.0625L4,-16,M1,-1L2,-2L4,-4L8,-8L16,-16",
+                getMessage(driver));
+    }
+
+    /**
+     * Test the plotting in segments, and the update of only the changed
+     * segments.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleSegmentTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder("p.setParameter('c',3);");
+        plot.append(CREATE_ELEMENT);
+        addAttribute(plot, "domain", "0:4");
+        addAttribute(plot, "samples", "4");
+        addAttribute(plot, "segment", "2");
+        addAttribute(plot, "function", "#x>#c?#x^2:0");
+        addAttribute(plot, "stroke", "black");
+        plot.append("document.documentElement.appendChild(el);var g=p.handle(el),paths=g.getElementsByTagName('path');");
+        plot.append("var r=[g.tagName,g.getAttribute('stroke'),paths.length],o=null;");
+        plot.append("var id=setInterval(function(){if(o===null&&paths.length===2){r.push(paths[0].getAttribute('d'),paths[1].getAttribute('d'));");
+        plot.append("o=new MutationObserver(function(){});o.observe(g,{attributes:true,subtree:true});p.setParameter('c',2);}");
+        plot.append("else if(o!==null&&paths[1].getAttribute('d')!==r[4]){clearInterval(id);");
+        plot.append("r.push(paths[1].getAttribute('d'),o.takeRecords().length);setResult(r.join('|'));}},10);");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "g|black|1|M0,0L1,0L2,0|M2,0L3,0L4,-16|M2,0L3,-9L4,-16|1", getMessage(driver));
+    }
+
+    /**
+     * Test the handling of several plot elements at once, replacing them in
+     * document order.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleAllTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder();
+        plot.append("var g=document.createElementNS(SVGModule.SVG_NS,'g'),plots=[];");
+        plot.append("['a','b','r','c'].forEach(function(id){var el=document.createElementNS(SVGModule.SVG_NS,id==='r'?'rect':'plot');");
+        plot.append("el.setAttribute('id',id);if(id!=='r'){el.setAttribute('function','#x^2');plots.push(el);}g.appendChild(el);});");
+        plot.append("plots[0].appendChild(document.createElementNS(SVGModule.SVG_NS,'title'));document.documentElement.appendChild(g);");
+        plot.append("var paths=p.handleAll(plots),r=[];for(var n=g.firstChild;n!==null;n=n.nextSibling){r.push(n.tagName+'#'+n.id);}");
+        plot.append("setResult([r.join(),paths.length,paths[0].childNodes.length].join('|'));");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "path#a,path#b,rect#r,path#c|3|1", getMessage(driver));
+    }
+
+    /**
+     * Verify the exception when log-distributing a non-positive domain.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = {"all", "alert"})
+    public void handleLogDomainTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder elem = new StringBuilder(CREATE_ELEMENT);
+        addAttribute(elem, "domain", "0:1");
+        addAttribute(elem, "function", "#x");
+        addAttribute(elem, "distribution", "log");
+        String callback = String.format(CALLBACK, elem.toString());
+        require(driver, callback, MODULE_NAME);
+        wait.until(ExpectedConditions.alertIsPresent());
+        String alert = getAlert(driver);
+        String msg = getMessage(driver);
+        assertTrue(alert.startsWith("ParseError: Invalid log domain: 0:1"), msg + " --> " + alert);
+    }
+
+    /**
+     * Test the plotting of a binary dataset.
+     *
+     * @param driver The WebDriver executing the test.
+     */
+    @Test(dataProvider = "driver", groups = "all")
+    public void handleDatasetTest(WebDriver driver) {
+        Wait wait = load(driver, MODULE_LOADER, 1);
+        StringBuilder plot = new StringBuilder();
+        plot.append("var b=new Blob([new Float64Array([0,1,2,0,1,4])]);");
+        plot.append(CREATE_ELEMENT);
+        addAttribute(plot, "format", "float64");
+        plot.append("el.setAttribute('src',URL.createObjectURL(b));var path=p.handle(el);");
+        plot.append("var id=setInterval(function(){if(path.hasAttribute('d')){clearInterval(id);setResult(path.getAttribute('d'));}},10);");
+        require(driver, "function(p){" + plot + "}", MODULE_NAME);
+        wait.until(RESULT_SET);
+        assertEquals(getResult(driver), "M0,0L1,-1L2,-4", getMessage(driver));
+    }
+
     private void addAttribute(Appendable sb, String name, String value) {
         try {
             sb.append("el.setAttribute(\"").append(name);
@@ -0,0 +1,131 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * The contents of this file are subject to the Common Development and Distribution
+ * License Version 1.0 (the "License"); you may not use this file except in
+ * compliance with the License. You may obtain a copy of the License at
+ * http://opensource.org/licenses/CDDL-1.0/
+ *
+ * Software distributed under the License is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTY OF ANY KIND, either express or implied. See the License
+ * for the specific language governing rights and limitations under the
+ * License.
+ *
+ * The Original Code is SVG Plot Module Extension.
+ *
+ * The Initial Developer of the Original Code is R. M. Cuenen
+ * Portions created by the Initial Developer are Copyright (C) 2013
+ * the Initial Developer. All Rights Reserved.
+ *
+ * Contributor(s):
+ *   Raymond Cuenen <Raymond.Cuenen@gmail.com>
+ *
+ * If applicable, add the following below the
+ * License Header, with the fields enclosed by brackets [] replaced by
+ * your own identifying information:
+ * "Portions Copyrighted [year] [name of copyright owner]"
+ *
+ */
+/**
+ * Measures the conversion of the plot elements in the 'template' group.
+ * The template is cloned 'repeat' times into the document, after which
+ * all clones are handled by the SVGPlotter, either all at once or one by one.
+ * Besides the duration the number of DOM mutations and the number of forced
+ * layouts are counted: a layout is forced when a layout-dependent method is
+ * called while there are unobserved mutations.
+ */
+var PerformanceDriver = {
+    /**
+     * The layout-dependent methods.
+     */
+    LAYOUT_METHODS: ["getBBox", "getCTM", "getScreenCTM"],
+    /**
+     * Returns the current time in milliseconds.
+     */
+    now: function () {
+        if (window.performance && typeof window.performance.now === 'function') {
+            return window.performance.now();
+        }
+        return new Date().getTime();
+    },
+    /**
+     * Replaces the given method of the element's prototype chain by one that
+     * first counts a forced layout when the observer has pending records.
+     *
+     * @param {Element} element The element whose prototype chain is changed.
+     * @param {String} name The method name.
+     * @param {MutationObserver} observer The observer of the document.
+     * @param {Object} counts The 'layouts' and 'mutations' counts.
+     * @returns {Function} The function restoring the original method.
+     */
+    instrument: function (element, name, observer, counts) {
+        var owner = element;
+        while (owner !== null && !Object.prototype.hasOwnProperty.call(owner, name)) {
+            owner = Object.getPrototypeOf(owner);
+        }
+        if (owner === null) {
+            return function () {
+            };
+        }
+        var original = owner[name];
+        owner[name] = function () {
+            var records = observer.takeRecords().length;
+            if (records > 0) {
+                counts.layouts++;
+                counts.mutations += records;
+            }
+            return original.apply(this, arguments);
+        };
+        return function () {
+            owner[name] = original;
+        };
+    },
+    /**
+     * Converts all the template clones and forces the layout of the result.
+     *
+     * @param {SVGPlotter} plotter The SVGPlotter module.
+     * @param {Boolean} sequential Whether to handle the clones one by one
+     *                             instead of all at once.
+     * @returns {Object} The 'duration' in milliseconds and the number of
+     *          'layouts' and 'mutations'.
+     */
+    measure: function (plotter, sequential) {
+        var template = document.getElementById("template");
+        var repeat = Number(template.getAttribute("repeat"));
+        var group = document.createElementNS(SVGModule.SVG_NS, "g");
+        var plots = [];
+        for (var i = 0; i < repeat; i++) {
+            for (var node = template.firstChild; node !== null; node = node.nextSibling) {
+                if (node.nodeType === 1) {
+                    plots.push(group.appendChild(node.cloneNode(true)));
+                }
+            }
+        }
+        document.documentElement.appendChild(group);
+        var counts = {layouts: 0, mutations: 0};
+        var observer = new MutationObserver(function () {
+        });
+        observer.observe(document.documentElement, {attributes: true, childList: true, subtree: true});
+        var restore = [];
+        for (var k = 0; k < PerformanceDriver.LAYOUT_METHODS.length; k++) {
+            restore.push(PerformanceDriver.instrument(group, PerformanceDriver.LAYOUT_METHODS[k], observer, counts));
+        }
+        var start = PerformanceDriver.now();
+        if (sequential) {
+            for (var j = 0; j < plots.length; j++) {
+                plotter.handle(plots[j]);
+            }
+        } else {
+            plotter.handleAll(plots);
+        }
+        group.getBBox();
+        var duration = PerformanceDriver.now() - start;
+        for (var r = 0; r < restore.length; r++) {
+            restore[r]();
+        }
+        counts.mutations += observer.takeRecords().length;
+        observer.disconnect();
+        document.documentElement.removeChild(group);
+        return {duration: duration, layouts: counts.layouts, mutations: counts.mutations};
+    }
+};